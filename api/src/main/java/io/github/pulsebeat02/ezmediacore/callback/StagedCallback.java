@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.callback;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A callback which splits processing a frame into two stages. Buffered players run {@link
+ * #prepare(int[], ByteBuffer)} on a worker pool as soon as a frame is decoded, and only call
+ * {@link #processPrepared(BufferCarrier)} on the display thread once the frame is due.
+ */
+public interface StagedCallback extends Callback {
+
+  /**
+   * Runs the expensive part of processing a frame, which does not depend on the viewers or the
+   * time it is shown at (for example dithering). Called from worker threads, possibly for several
+   * frames at once.
+   *
+   * @param data the frame pixels
+   * @param output the buffer to write the prepared frame to, one byte per pixel
+   */
+  void prepare(final int @NotNull [] data, @NotNull final ByteBuffer output);
+
+  /**
+   * Sends a frame which was already prepared, either by {@link #prepare(int[], ByteBuffer)} or by
+   * the player itself.
+   *
+   * @param data the prepared frame, one byte per pixel
+   */
+  void processPrepared(@NotNull final BufferCarrier data);
+
+  /**
+   * Processes a frame read straight from a buffer of pixels, such as the native memory a decoder
+   * renders into, from index 0 to its limit. Implementations should override this to avoid the
+   * copy into an array the default makes.
+   *
+   * @param data the frame pixels
+   */
+  default void process(@NotNull final IntBuffer data) {
+    final int[] pixels = new int[data.limit()];
+    data.get(0, pixels);
+    this.process(pixels);
+  }
+}
@@ -1,8 +1,38 @@
 package io.github.pulsebeat02.ezmediacore.callback.buffer;
 
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
 public interface BufferCarrier {
 
   byte getByte(final int index);
 
   int getCapacity();
+
+  /**
+   * Copies a range of bytes into an array. Implementations should override this with a bulk copy,
+   * as the default falls back to {@link #getByte(int)} for every byte.
+   *
+   * @param index the first byte to copy
+   * @param destination the array to copy into
+   * @param offset the first index to write to in the array
+   * @param length the number of bytes to copy
+   */
+  default void getBytes(
+      final int index, final byte @NotNull [] destination, final int offset, final int length) {
+    for (int i = 0; i < length; i++) {
+      destination[offset + i] = this.getByte(index + i);
+    }
+  }
+
+  /**
+   * Returns a view over the whole carrier which shares its content, if the carrier is backed by
+   * memory which can be exposed as one.
+   *
+   * @return the view, or null if there is none
+   */
+  default @Nullable ByteBuffer getNioBuffer() {
+    return null;
+  }
 }
@@ -30,9 +30,23 @@ import org.jetbrains.annotations.NotNull;
 
 public interface EntityCallbackDispatcher extends Callback, Locatable {
 
+  /**
+   * Returns the entities of the screen. Virtual screens have no entities in the world, so this is
+   * empty for them.
+   *
+   * @return the entities, from top to bottom
+   */
   @NotNull
   Entity[] getEntities();
 
+  /**
+   * Returns whether the screen is made of virtual entities, which only exist on the clients of the
+   * viewers.
+   *
+   * @return whether the screen is virtual
+   */
+  boolean isVirtual();
+
   @NotNull
   NamedEntityString getStringName();
 }
@@ -23,14 +23,16 @@
  */
 package io.github.pulsebeat02.ezmediacore.callback.implementation;
 
-import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.callback.StagedCallback;
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import org.jetbrains.annotations.NotNull;
 
-public interface MapCallbackDispatcher extends Callback {
+public interface MapCallbackDispatcher extends StagedCallback {
 
   long getMapId();
 
+  int getBlockWidth();
+
   @NotNull
   DitherAlgorithm getAlgorithm();
 }
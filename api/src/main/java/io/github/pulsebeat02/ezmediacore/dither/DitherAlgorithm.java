@@ -24,6 +24,8 @@
 package io.github.pulsebeat02.ezmediacore.dither;
 
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import org.jetbrains.annotations.NotNull;
 
 @FunctionalInterface
@@ -32,5 +34,40 @@ public interface DitherAlgorithm {
   @NotNull
   BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width);
 
+  /**
+   * Dithers the buffer into Minecraft map colors, writing them into a caller-owned buffer rather
+   * than allocating a new one. The output is written with absolute puts starting at index 0, so
+   * the same buffer can be reused for every frame.
+   *
+   * @param buffer the rgb buffer
+   * @param width the width of the buffer
+   * @param data the output buffer, at least as large as the rgb buffer
+   */
+  default void ditherInto(
+      final int @NotNull [] buffer, final int width, @NotNull final ByteBuffer data) {
+    final BufferCarrier carrier = this.ditherIntoMinecraft(buffer, width);
+    final int capacity = carrier.getCapacity();
+    for (int i = 0; i < capacity; i++) {
+      data.put(i, carrier.getByte(i));
+    }
+  }
+
+  /**
+   * Dithers pixels read straight from a buffer, such as the native memory a decoder renders into.
+   * The pixels are read with absolute gets from index 0 to the limit of the buffer. Algorithms
+   * which read their pixels one at a time should override this, as the default copies the pixels
+   * into a new array first.
+   *
+   * @param buffer the rgb buffer
+   * @param width the width of the buffer
+   * @param data the output buffer, at least as large as the rgb buffer
+   */
+  default void ditherInto(
+      @NotNull final IntBuffer buffer, final int width, @NotNull final ByteBuffer data) {
+    final int[] pixels = new int[buffer.limit()];
+    buffer.get(0, pixels);
+    this.ditherInto(pixels, width, data);
+  }
+
   default void dither(final int @NotNull [] buffer, final int width) {}
 }
@@ -46,20 +46,45 @@
 package io.github.pulsebeat02.ezmediacore.nms;
 
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.ChatRowCache;
 import java.nio.IntBuffer;
+import java.util.List;
 import java.util.UUID;
-import net.md_5.bungee.api.ChatColor;
+import java.util.function.Consumer;
+import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.Scoreboard;
 import org.bukkit.scoreboard.Team;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public interface PacketHandler {
 
   void displayDebugMarker(
       final UUID[] viewers, final int x, final int y, final int z, final int color, final int time);
 
+  /**
+   * Shows many debug markers at once. The payloads of all markers are built in one pass and
+   * written to every viewer with a single flush.
+   *
+   * @param viewers the viewers, or null for everyone
+   * @param x the x coordinates of the markers
+   * @param y the y coordinates of the markers
+   * @param z the z coordinates of the markers
+   * @param colors the colors of the markers
+   * @param count the number of markers to show, from the start of the arrays
+   * @param time how long the markers are shown, in milliseconds
+   */
+  void displayDebugMarkers(
+      final UUID[] viewers,
+      final int @NotNull [] x,
+      final int @NotNull [] y,
+      final int @NotNull [] z,
+      final int @NotNull [] colors,
+      final int count,
+      final int time);
+
   void displayMaps(
       final UUID[] viewers,
       @NotNull final BufferCarrier rgb,
@@ -85,6 +110,22 @@ public interface PacketHandler {
     this.displayMaps(viewers, rgb, map, mapHeight, mapWidth, videoWidth, xOff, yOff);
   }
 
+  /**
+   * Returns how many map frames were skipped for a viewer because their connection couldn't keep
+   * up. A viewer who skipped frames is sent the newest frame in full once their connection drains.
+   *
+   * @param viewer the viewer
+   * @return the number of skipped frames
+   */
+  long getDroppedFrames(@NotNull final UUID viewer);
+
+  /**
+   * Forgets the viewers remembered as lagging behind on a map screen, once the screen stops.
+   *
+   * @param map the id of the first map of the screen
+   */
+  void releaseMaps(final int map);
+
   void displayEntities(
       final UUID[] viewers,
       final Entity[] entities,
@@ -93,7 +134,68 @@ public interface PacketHandler {
       final int width,
       final int height);
 
+  /**
+   * Forgets the names last sent for entities which were removed, so nothing is kept for them.
+   *
+   * @param entities the entities
+   */
+  void forgetEntities(final Entity @NotNull [] entities);
+
+  /**
+   * Creates entities which only exist on the clients of their viewers. They are never added to a
+   * world, so the server doesn't tick, track or save them, and their ids are reserved so they never
+   * collide with real entities. Viewers who join later are sent the entities as well, and viewers
+   * are sent them again through {@link #resendVirtualEntities} after respawning or changing worlds.
+   *
+   * @param viewers the viewers, or null for everyone in the world of the entities
+   * @param locations the location of every entity
+   * @param type the class of the entities
+   * @param consumer called with every entity before it is sent, to set it up
+   * @param <T> the type of the entities
+   * @return the ids of the entities, in the order of the locations
+   */
+  <T extends Entity> int @NotNull [] spawnVirtualEntities(
+      final UUID[] viewers,
+      @NotNull final Location @NotNull [] locations,
+      @NotNull final Class<T> type,
+      @Nullable final Consumer<T> consumer);
+
+  /**
+   * Removes entities created by {@link #spawnVirtualEntities} from the clients of their viewers.
+   *
+   * @param ids the ids of the entities
+   */
+  void removeVirtualEntities(final int @NotNull [] ids);
+
+  /**
+   * Sends the entities created by {@link #spawnVirtualEntities} to a player again, because the
+   * client forgot them when the player respawned or changed worlds.
+   *
+   * @param player the player
+   */
+  void resendVirtualEntities(@NotNull final Player player);
+
+  void displayVirtualEntities(
+      final UUID[] viewers,
+      final int @NotNull [] ids,
+      @NotNull final IntBuffer data,
+      final String character,
+      final int width,
+      final int height);
+
+  /**
+   * Shows a frame in chat. The rows last shown are kept per screen, so unchanged rows are reused
+   * no matter how many other chat screens are playing.
+   *
+   * @param screen the screen the frame belongs to, which is only held weakly
+   * @param viewers the viewers, or null for everyone
+   * @param data the pixels, of size width * height
+   * @param character the character of a pixel
+   * @param width the width of the frame
+   * @param height the height of the frame
+   */
   void displayChat(
+      @NotNull final Object screen,
       final UUID[] viewers,
       @NotNull final IntBuffer data,
       final String character,
@@ -116,6 +218,20 @@ public interface PacketHandler {
     }
   }
 
+  /**
+   * Changes the suffixes of scoreboard teams by sending team packets directly. Unlike the Bukkit
+   * scoreboard API, this doesn't have to run on the main thread. The teams must already have been
+   * registered on the scoreboard the viewers are shown, with default options.
+   *
+   * @param viewers the viewers, or null for everyone
+   * @param teams the names of the teams to change
+   * @param suffixes the new suffix of every team, in legacy color codes
+   */
+  void displayScoreboardTeams(
+      final UUID[] viewers,
+      @NotNull final List<String> teams,
+      @NotNull final List<String> suffixes);
+
   void injectPlayer(@NotNull final Player player);
 
   void uninjectPlayer(@NotNull final Player player);
@@ -132,16 +248,8 @@ public interface PacketHandler {
 
   default @NotNull String createChatComponent(
       final String character, @NotNull final IntBuffer data, final int width, final int y) {
-    int before = -1;
     final StringBuilder msg = new StringBuilder();
-    for (int x = 0; x < width; ++x) {
-      final int rgb = data.get(width * y + x);
-      if (before != rgb) {
-        msg.append(ChatColor.of("#" + Integer.toHexString(rgb).substring(2)));
-      }
-      msg.append(character);
-      before = rgb;
-    }
+    ChatRowCache.appendRow(msg, character, data, width * y, width);
     return msg.toString();
   }
 }
@@ -37,6 +37,7 @@ public interface VideoPlayer extends LibraryInjectable, Viewable, Dimensional {
 
   Identifier<String> VLC = Identifier.ofIdentifier("VLC");
   Identifier<String> FFMPEG = Identifier.ofIdentifier("FFMPEG");
+  Identifier<String> PRERENDERED = Identifier.ofIdentifier("PRERENDERED");
 
   @Deprecated Identifier<String> JCODEC = Identifier.ofIdentifier("JCODEC");
 
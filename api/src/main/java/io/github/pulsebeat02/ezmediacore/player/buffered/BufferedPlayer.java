@@ -40,7 +40,13 @@ public interface BufferedPlayer {
 
   void startDisplayRunnable();
 
-  void startWatchdogRunnable();
+  @NotNull
+  FrameStatistics getFrameStatistics();
+
+  @NotNull
+  LateFramePolicy getLateFramePolicy();
+
+  void setLateFramePolicy(@NotNull final LateFramePolicy policy);
 
   void forceStop();
 
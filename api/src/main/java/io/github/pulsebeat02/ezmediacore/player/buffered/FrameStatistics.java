@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import java.util.Objects;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Snapshot of the frame scheduler counters of a buffered player.
+
+presented - frames passed to the callback
+early     - frames which were ready before their timestamp and had to wait
+late      - frames presented more than one frame interval after their timestamp
+dropped   - frames discarded by the LateFramePolicy
+ */
+public final class FrameStatistics {
+
+  private final long presented;
+  private final long early;
+  private final long late;
+  private final long dropped;
+
+  FrameStatistics(final long presented, final long early, final long late, final long dropped) {
+    this.presented = presented;
+    this.early = early;
+    this.late = late;
+    this.dropped = dropped;
+  }
+
+  @Contract(value = "_, _, _, _ -> new", pure = true)
+  public static @NotNull FrameStatistics ofStatistics(
+      final long presented, final long early, final long late, final long dropped) {
+    return new FrameStatistics(presented, early, late, dropped);
+  }
+
+  public long getPresented() {
+    return this.presented;
+  }
+
+  public long getEarly() {
+    return this.early;
+  }
+
+  public long getLate() {
+    return this.late;
+  }
+
+  public long getDropped() {
+    return this.dropped;
+  }
+
+  @Contract(pure = true)
+  @Override
+  public @NotNull String toString() {
+    return "{presented=%d,early=%d,late=%d,dropped=%d}"
+        .formatted(this.presented, this.early, this.late, this.dropped);
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof FrameStatistics)) {
+      return false;
+    }
+    final FrameStatistics statistics = (FrameStatistics) obj;
+    return statistics.presented == this.presented
+        && statistics.early == this.early
+        && statistics.late == this.late
+        && statistics.dropped == this.dropped;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.presented, this.early, this.late, this.dropped);
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.utility.graphics;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+Remembers the rows last shown in chat, so that a row is only turned into
+a chat message (and whatever the server version encodes it to) when its
+pixels changed.
+
+Chat scrolls, so a frame can't be shown by sending only the changed rows.
+Every row is sent whenever anything changed, but unchanged rows reuse the
+message they were encoded to before. A frame which didn't change at all
+is not sent, except every RESEND_INTERVAL_MS so the picture comes back
+after other messages pushed it out of view.
+
+Colors are written as legacy hex codes (the same ones ChatColor#of
+creates), built from a table with the codes of every byte value instead
+of formatting a string for each pixel.
+
+ */
+public final class ChatRowCache<T> {
+
+  private static final long RESEND_INTERVAL_MS;
+  private static final char COLOR_CHAR;
+  private static final char[] BYTE_CODES;
+
+  static {
+    RESEND_INTERVAL_MS = 5000L;
+    COLOR_CHAR = '\u00A7';
+    BYTE_CODES = createByteCodes();
+  }
+
+  private final Function<String, T> encoder;
+  private final List<T> rows;
+  private final StringBuilder builder;
+  private UUID[] viewers;
+  private String character;
+  private int[] pixels;
+  private int[] line;
+  private int width;
+  private long sent;
+
+  public ChatRowCache(@NotNull final Function<String, T> encoder) {
+    this.encoder = encoder;
+    this.rows = new ArrayList<>();
+    this.builder = new StringBuilder();
+  }
+
+  private static char @NotNull [] createByteCodes() {
+    final char[] digits = "0123456789abcdef".toCharArray();
+    final char[] codes = new char[256 << 2];
+    for (int i = 0; i < 256; i++) {
+      final int index = i << 2;
+      codes[index] = COLOR_CHAR;
+      codes[index + 1] = digits[i >> 4];
+      codes[index + 2] = COLOR_CHAR;
+      codes[index + 3] = digits[i & 0xF];
+    }
+    return codes;
+  }
+
+  /**
+   * Appends one row of pixels as colored characters, with a color code wherever the color changes.
+   *
+   * @param builder the builder to append to
+   * @param character the character of a pixel
+   * @param data the pixels
+   * @param offset the index of the first pixel of the row
+   * @param width the number of pixels in the row
+   */
+  public static void appendRow(
+      @NotNull final StringBuilder builder,
+      @NotNull final String character,
+      @NotNull final IntBuffer data,
+      final int offset,
+      final int width) {
+    int before = -1;
+    for (int x = 0; x < width; x++) {
+      final int rgb = data.get(offset + x) & 0xFFFFFF;
+      if (rgb != before) {
+        builder.append(COLOR_CHAR).append('x');
+        builder.append(BYTE_CODES, (rgb >> 14) & 0x3FC, 4);
+        builder.append(BYTE_CODES, (rgb >> 6) & 0x3FC, 4);
+        builder.append(BYTE_CODES, (rgb << 2) & 0x3FC, 4);
+        before = rgb;
+      }
+      builder.append(character);
+    }
+  }
+
+  /**
+   * Compares a frame with the rows last shown and encodes the rows which changed.
+   *
+   * @param viewers the viewers the frame is sent to, or null for everyone
+   * @param data the pixels, of size width * height
+   * @param character the character of a pixel
+   * @param width the width of the frame
+   * @param height the height of the frame
+   * @return the encoded rows from top to bottom, or null if nothing has to be sent
+   */
+  public synchronized @Nullable List<T> update(
+      final UUID @Nullable [] viewers,
+      @NotNull final IntBuffer data,
+      @NotNull final String character,
+      final int width,
+      final int height) {
+    final boolean full = !this.matches(viewers, character, width, height);
+    if (full) {
+      this.reset(viewers, character, width, height);
+    }
+    boolean changed = full;
+    for (int y = 0; y < height; y++) {
+      final int start = y * width;
+      data.get(start, this.line);
+      if (!full && Arrays.mismatch(this.pixels, start, start + width, this.line, 0, width) == -1) {
+        continue;
+      }
+      System.arraycopy(this.line, 0, this.pixels, start, width);
+      this.builder.setLength(0);
+      appendRow(this.builder, character, data, start, width);
+      final T row = this.encoder.apply(this.builder.toString());
+      if (full) {
+        this.rows.add(row);
+      } else {
+        this.rows.set(y, row);
+      }
+      changed = true;
+    }
+    final long time = System.currentTimeMillis();
+    if (!changed && time - this.sent < RESEND_INTERVAL_MS) {
+      return null;
+    }
+    this.sent = time;
+    return new ArrayList<>(this.rows);
+  }
+
+  private boolean matches(
+      final UUID[] viewers, final String character, final int width, final int height) {
+    return this.pixels != null
+        && this.width == width
+        && this.pixels.length == width * height
+        && this.character.equals(character)
+        && Arrays.equals(this.viewers, viewers);
+  }
+
+  private void reset(
+      final UUID[] viewers, final String character, final int width, final int height) {
+    this.viewers = viewers == null ? null : viewers.clone();
+    this.character = character;
+    this.width = width;
+    this.pixels = new int[width * height];
+    this.line = new int[width];
+    this.rows.clear();
+  }
+
+  /** Forgets all shown rows, so the next frame is encoded and sent in full. */
+  public synchronized void invalidate() {
+    this.pixels = null;
+  }
+}
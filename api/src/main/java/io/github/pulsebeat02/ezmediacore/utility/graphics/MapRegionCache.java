@@ -0,0 +1,222 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.utility.graphics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+Remembers the map data last sent for every map, so that only the changed
+part of a map has to be sent again.
+
+A map is sent in full (a keyframe) when it has never been sent, when it
+is shown to a different group of viewers, when the area it covers changes,
+after the cache was invalidated (for example, because a player joined),
+and at least every KEYFRAME_INTERVAL_MS so clients that missed an update
+recover on their own.
+
+Otherwise, only the bounding box of the changed pixels is sent, or
+nothing at all if the map didn't change.
+
+ */
+public final class MapRegionCache {
+
+  private static final long KEYFRAME_INTERVAL_MS;
+
+  static {
+    KEYFRAME_INTERVAL_MS = 5000L;
+  }
+
+  private final Map<Integer, MapState> states;
+
+  public MapRegionCache() {
+    this.states = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Compares the new data of a map with the data last sent for it and returns the region which has
+   * to be sent.
+   *
+   * @param map the map id
+   * @param viewers the viewers the map is sent to, or null for everyone
+   * @param data the new map data, of size width * height
+   * @param x the first x pixel within the map
+   * @param y the first y pixel within the map
+   * @param width the width of the data
+   * @param height the height of the data
+   * @return the region to send, or null if nothing changed
+   */
+  public @Nullable Region update(
+      final int map,
+      final UUID @Nullable [] viewers,
+      final byte @NotNull [] data,
+      final int x,
+      final int y,
+      final int width,
+      final int height) {
+    final long time = System.currentTimeMillis();
+    final MapState state = this.states.get(map);
+    if (state == null
+        || !state.matches(viewers, x, y, width, height)
+        || time - state.keyframe >= KEYFRAME_INTERVAL_MS) {
+      this.states.put(map, new MapState(viewers, data.clone(), x, y, width, height, time));
+      return new Region(x, y, width, height, data);
+    }
+    return state.diff(data);
+  }
+
+  /** Forgets all sent data, so the next update of every map is sent in full. */
+  public void invalidate() {
+    this.states.clear();
+  }
+
+  public static final class Region {
+
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final byte[] data;
+
+    Region(final int x, final int y, final int width, final int height, final byte[] data) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+      this.data = data;
+    }
+
+    public int getX() {
+      return this.x;
+    }
+
+    public int getY() {
+      return this.y;
+    }
+
+    public int getWidth() {
+      return this.width;
+    }
+
+    public int getHeight() {
+      return this.height;
+    }
+
+    public byte @NotNull [] getData() {
+      return this.data;
+    }
+  }
+
+  private static final class MapState {
+
+    private final UUID[] viewers;
+    private final byte[] sent;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+    private final long keyframe;
+
+    MapState(
+        final UUID[] viewers,
+        final byte[] sent,
+        final int x,
+        final int y,
+        final int width,
+        final int height,
+        final long keyframe) {
+      this.viewers = viewers;
+      this.sent = sent;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+      this.keyframe = keyframe;
+    }
+
+    boolean matches(
+        final UUID[] viewers, final int x, final int y, final int width, final int height) {
+      return this.x == x
+          && this.y == y
+          && this.width == width
+          && this.height == height
+          && Arrays.equals(this.viewers, viewers);
+    }
+
+    @Nullable
+    Region diff(final byte @NotNull [] data) {
+      final int width = this.width;
+      int minX = width;
+      int maxX = -1;
+      int minY = -1;
+      int maxY = -1;
+      for (int row = 0; row < this.height; row++) {
+        final int start = row * width;
+        final int end = start + width;
+        final int first = Arrays.mismatch(this.sent, start, end, data, start, end);
+        if (first == -1) {
+          continue;
+        }
+        int last = end - 1;
+        while (this.sent[last] == data[last]) {
+          last--;
+        }
+        minX = Math.min(minX, first);
+        maxX = Math.max(maxX, last - start);
+        if (minY == -1) {
+          minY = row;
+        }
+        maxY = row;
+      }
+      if (minY == -1) {
+        return null;
+      }
+      System.arraycopy(data, 0, this.sent, 0, data.length);
+      return this.crop(data, minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
+
+    @NotNull
+    private Region crop(
+        final byte @NotNull [] data,
+        final int minX,
+        final int minY,
+        final int regionWidth,
+        final int regionHeight) {
+      if (regionWidth == this.width && regionHeight == this.height) {
+        return new Region(this.x, this.y, this.width, this.height, data);
+      }
+      final byte[] region = new byte[regionWidth * regionHeight];
+      for (int row = 0; row < regionHeight; row++) {
+        System.arraycopy(
+            data, (minY + row) * this.width + minX, region, row * regionWidth, regionWidth);
+      }
+      return new Region(this.x + minX, this.y + minY, regionWidth, regionHeight, region);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.utility.graphics;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import org.jetbrains.annotations.NotNull;
+
+public final class MapSlicer {
+
+  private MapSlicer() {}
+
+  /**
+   * Copies the part of a dithered frame which lands on a single map into that map's data array,
+   * one row at a time.
+   *
+   * @param rgb the dithered frame
+   * @param mapData the map data, of size xDiff * yDiff
+   * @param videoWidth the width of the frame
+   * @param xOff the x offset of the frame on the screen
+   * @param yOff the y offset of the frame on the screen
+   * @param relX the x pixel of the map on the screen
+   * @param relY the y pixel of the map on the screen
+   * @param topX the first x pixel within the map
+   * @param topY the first y pixel within the map
+   * @param xDiff the width of the copied area
+   * @param yDiff the height of the copied area
+   */
+  public static void slice(
+      @NotNull final BufferCarrier rgb,
+      final byte @NotNull [] mapData,
+      final int videoWidth,
+      final int xOff,
+      final int yOff,
+      final int relX,
+      final int relY,
+      final int topX,
+      final int topY,
+      final int xDiff,
+      final int yDiff) {
+    final int yPixMax = yDiff + topY;
+    final int start = relX + topX - xOff;
+    for (int iy = topY; iy < yPixMax; iy++) {
+      final int indexY = (relY + iy - yOff) * videoWidth;
+      rgb.getBytes(indexY + start, mapData, (iy - topY) * xDiff, xDiff);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+plugins {
+    id("me.champeau.jmh") version "0.6.6"
+}
+
+dependencies {
+
+    // PROJECT DEPENDENCIES
+    setOf(
+        project(":api"),
+        project(":main")
+    ).forEach {
+        jmh(it)
+    }
+
+    // PROVIDED DEPENDENCIES
+    setOf(
+        "io.netty:netty-all:4.1.70.Final",
+        "com.google.guava:guava:30.1.1-jre",
+        "it.unimi.dsi:fastutil:8.5.6"
+    ).forEach {
+        jmh(it)
+    }
+}
+
+jmh {
+    jmhVersion.set("1.33")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+}
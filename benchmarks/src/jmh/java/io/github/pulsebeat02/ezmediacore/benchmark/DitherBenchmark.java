@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Measures the time and allocation to dither a single frame with every algorithm. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DitherBenchmark {
+
+  @Param({
+    "FILTER_LITE",
+    "FLOYD_STEINBERG",
+    "FILTER_LITE_PARALLEL",
+    "FLOYD_STEINBERG_PARALLEL",
+    "FILTER_LITE_NATIVE",
+    "ORDERED_2X2",
+    "ORDERED_4X4",
+    "ORDERED_8X8",
+    "RANDOM",
+    "SIMPLE"
+  })
+  private String algorithm;
+
+  @Param({"128x128", "640x384", "1280x768"})
+  private String resolution;
+
+  private DitherAlgorithm dither;
+  private int[] frame;
+  private int width;
+  private ByteBuffer output;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    Frames.initLookupTables();
+    this.dither = (DitherAlgorithm) Algorithm.class.getField(this.algorithm).get(null);
+    this.width = Frames.getWidth(this.resolution);
+    this.frame = Frames.createFrame(this.width, Frames.getHeight(this.resolution));
+    this.output = ByteBuffer.allocateDirect(this.frame.length);
+  }
+
+  @Benchmark
+  public BufferCarrier ditherIntoMinecraft() {
+    return this.dither.ditherIntoMinecraft(this.frame, this.width);
+  }
+
+  @Benchmark
+  public ByteBuffer ditherInto() {
+    this.dither.ditherInto(this.frame, this.width, this.output);
+    return this.output;
+  }
+}
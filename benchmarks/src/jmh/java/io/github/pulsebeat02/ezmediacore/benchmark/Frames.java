@@ -0,0 +1,76 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import org.jetbrains.annotations.NotNull;
+
+final class Frames {
+
+  private static final Path LOOKUP_CACHE;
+
+  static {
+    LOOKUP_CACHE = Path.of(System.getProperty("java.io.tmpdir"), "ezmediacore-benchmarks");
+  }
+
+  private Frames() {}
+
+  static void initLookupTables() {
+    DitherLookupUtil.init(LOOKUP_CACHE);
+  }
+
+  static int getWidth(@NotNull final String resolution) {
+    return Integer.parseInt(resolution.substring(0, resolution.indexOf('x')));
+  }
+
+  static int getHeight(@NotNull final String resolution) {
+    return Integer.parseInt(resolution.substring(resolution.indexOf('x') + 1));
+  }
+
+  /*
+
+  Smooth gradients with a little noise on top, which is closer to real video
+  than pure noise and still exercises the whole lookup table.
+
+   */
+  static int @NotNull [] createFrame(final int width, final int height) {
+    final SplittableRandom random = new SplittableRandom(width * 31L + height);
+    final int[] frame = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        final int red = clamp(x * 255 / width + random.nextInt(-16, 17));
+        final int green = clamp(y * 255 / height + random.nextInt(-16, 17));
+        final int blue = clamp((x + y) * 127 / (width + height) + random.nextInt(-16, 17));
+        frame[y * width + x] = 0xFF000000 | red << 16 | green << 8 | blue;
+      }
+    }
+    return frame;
+  }
+
+  private static int clamp(final int value) {
+    return Math.max(0, Math.min(255, value));
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapSlicer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures cutting a dithered frame into map sized pieces, using the same loop as {@code
+ * NMSMapPacketInterceptor#displayMaps} without building or sending the packets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapSliceBenchmark {
+
+  @Param({"128x128", "640x384", "1280x768"})
+  private String resolution;
+
+  private BufferCarrier rgb;
+  private int videoWidth;
+  private int width;
+  private int height;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Frames.initLookupTables();
+    this.videoWidth = Frames.getWidth(this.resolution);
+    final int videoHeight = Frames.getHeight(this.resolution);
+    this.width = (this.videoWidth + 127) >> 7;
+    this.height = (videoHeight + 127) >> 7;
+    this.rgb =
+        Algorithm.SIMPLE.ditherIntoMinecraft(
+            Frames.createFrame(this.videoWidth, videoHeight), this.videoWidth);
+  }
+
+  @Benchmark
+  public void displayMaps(final Blackhole blackhole) {
+    final int videoWidth = this.videoWidth;
+    final int vidHeight = this.rgb.getCapacity() / videoWidth;
+    final int xLoopMax = Math.min(this.width, (int) Math.ceil(videoWidth / 128.0));
+    final int yLoopMax = Math.min(this.height, (int) Math.ceil(vidHeight / 128.0));
+    for (int y = 0; y < yLoopMax; y++) {
+      final int relY = y << 7;
+      final int yDiff = Math.min(128, vidHeight - relY);
+      for (int x = 0; x < xLoopMax; x++) {
+        final int relX = x << 7;
+        final int xDiff = Math.min(128, videoWidth - relX);
+        final byte[] mapData = new byte[xDiff * yDiff];
+        MapSlicer.slice(this.rgb, mapData, videoWidth, 0, 0, relX, relY, 0, 0, xDiff, yDiff);
+        blackhole.consume(mapData);
+      }
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares the two ways the VLC player hands a frame to a map callback: copying the RV32 frame out
+ * of the native buffer into an array first (as RenderCallbackAdapter does), or dithering straight
+ * from the native buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NativeFrameBenchmark {
+
+  @Param({"FILTER_LITE", "ORDERED_4X4", "SIMPLE"})
+  private String algorithm;
+
+  @Param({"128x128", "640x384", "1280x768"})
+  private String resolution;
+
+  private DitherAlgorithm dither;
+  private IntBuffer pixels;
+  private int[] frame;
+  private int width;
+  private ByteBuffer output;
+
+  @Setup(Level.Trial)
+  public void setup() throws ReflectiveOperationException {
+    Frames.initLookupTables();
+    this.dither = (DitherAlgorithm) Algorithm.class.getField(this.algorithm).get(null);
+    this.width = Frames.getWidth(this.resolution);
+    final int[] source = Frames.createFrame(this.width, Frames.getHeight(this.resolution));
+    this.pixels =
+        ByteBuffer.allocateDirect(source.length << 2).order(ByteOrder.nativeOrder()).asIntBuffer();
+    this.pixels.put(0, source);
+    this.frame = new int[source.length];
+    this.output = ByteBuffer.allocateDirect(source.length);
+  }
+
+  @Benchmark
+  public ByteBuffer copyThenDither() {
+    this.pixels.get(0, this.frame);
+    this.dither.ditherInto(this.frame, this.width, this.output);
+    return this.output;
+  }
+
+  @Benchmark
+  public ByteBuffer ditherDirect() {
+    this.dither.ditherInto(this.pixels, this.width, this.output);
+    return this.output;
+  }
+}
@@ -34,6 +34,9 @@ import org.jetbrains.annotations.NotNull;
 public enum DitherSetting {
   FILTER_LITE("Filter Lite", Algorithm.FILTER_LITE),
   FLOYD_STEINBERG("Floyd Steinberg", Algorithm.FLOYD_STEINBERG),
+  FILTER_LITE_PARALLEL("Filter Lite (Parallel)", Algorithm.FILTER_LITE_PARALLEL),
+  FLOYD_STEINBERG_PARALLEL("Floyd Steinberg (Parallel)", Algorithm.FLOYD_STEINBERG_PARALLEL),
+  FILTER_LITE_NATIVE("Filter Lite (Native)", Algorithm.FILTER_LITE_NATIVE),
   ORDERED_DITHER_2("Ordered Matrix (2x2)", Algorithm.ORDERED_2X2),
   ORDERED_DITHER_4("Ordered Matrix (4x4)", Algorithm.ORDERED_4X4),
   ORDERED_DITHER_8("Ordered Matrix (8x8)", Algorithm.ORDERED_8X8),
@@ -71,7 +71,39 @@ dependencies {
     }
 }
 
+val nativeResources = layout.buildDirectory.dir("natives")
+
 tasks {
+    register<Exec>("compileNativeDither") {
+        val source = file("src/main/cpp/filterlite-dither.cpp")
+        val library = nativeResources.get().file("natives/linux-x86_64/libfilterlite-dither.so").asFile
+        val javaHome = System.getProperty("java.home")
+        val os = System.getProperty("os.name").toLowerCase()
+        val arch = System.getProperty("os.arch")
+        val compiler = System.getenv("PATH").orEmpty().split(File.pathSeparator)
+            .map { File(it, "g++") }
+            .firstOrNull { it.canExecute() }
+
+        // The runtime falls back to the Java dither, so hosts without a toolchain still build
+        onlyIf {
+            os.contains("linux") && (arch == "amd64" || arch == "x86_64")
+                && !project.hasProperty("skipNativeDither")
+                && compiler != null
+                && File(javaHome, "include/jni.h").exists()
+        }
+        inputs.file(source)
+        outputs.file(library)
+        doFirst { library.parentFile.mkdirs() }
+        commandLine(
+            "g++", "-O3", "-shared", "-fPIC", "-std=c++17",
+            "-I$javaHome/include", "-I$javaHome/include/linux",
+            "-o", library.absolutePath, source.absolutePath
+        )
+    }
+    named<ProcessResources>("processResources") {
+        dependsOn("compileNativeDither")
+        from(nativeResources)
+    }
     withType<Test> {
         exclude("**/*")
         useJUnitPlatform()
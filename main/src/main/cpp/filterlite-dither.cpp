@@ -0,0 +1,138 @@
+#include <jni.h>
+#include <vector>
+
+/*
+
+Native counterpart of FilterLiteDither#ditherInto. The serial Java loop is
+mirrored line by line, so the output is byte-identical to it.
+
+The lookup tables are copied once by setup, and every thread keeps its own
+error rows so concurrent callers never share state.
+
+*/
+
+static std::vector<jbyte> color_map;
+static std::vector<jint> full_color_map;
+
+static inline jbyte get_best_color(const int rgb) {
+    return color_map[(rgb >> 16 & 0xFF) >> 1 << 14 | (rgb >> 8 & 0xFF) >> 1 << 7 | (rgb & 0xFF) >> 1];
+}
+
+static inline int get_best_full_color(const int red, const int green, const int blue) {
+    return full_color_map[red >> 1 << 14 | green >> 1 << 7 | blue >> 1];
+}
+
+static inline int clamp(const int value) {
+    return value > 255 ? 255 : value < 0 ? 0 : value;
+}
+
+extern "C" {
+
+JNIEXPORT void JNICALL Java_io_github_pulsebeat02_ezmediacore_natives_NativeDitherBuffer_setup(
+        JNIEnv *env, jclass clazz, jbyteArray color, jintArray full) {
+    color_map.resize(env->GetArrayLength(color));
+    full_color_map.resize(env->GetArrayLength(full));
+    env->GetByteArrayRegion(color, 0, (jsize) color_map.size(), color_map.data());
+    env->GetIntArrayRegion(full, 0, (jsize) full_color_map.size(), full_color_map.data());
+}
+
+JNIEXPORT void JNICALL Java_io_github_pulsebeat02_ezmediacore_natives_NativeDitherBuffer_ditherNative(
+        JNIEnv *env, jclass clazz, jobject buffer, jintArray arr, const jint width) {
+    thread_local std::vector<int> errors;
+
+    const int length = env->GetArrayLength(arr);
+    const int height = length / width;
+    const int width_minus = width - 1;
+    const int height_minus = height - 1;
+    const int span = width << 2;
+
+    errors.assign((size_t) span << 1, 0);
+    int *dither_buffer[2] = {errors.data(), errors.data() + span};
+
+    jbyte *data = (jbyte *) env->GetDirectBufferAddress(buffer);
+    jint *array = (jint *) env->GetPrimitiveArrayCritical(arr, nullptr);
+    if (array == nullptr) {
+        return;
+    }
+
+    /*
+
+    Simple Sierra 2-4A Dithering (Filter Lite)
+
+          *  2/4
+    1/4 1/4
+
+    */
+
+    for (int y = 0; y < height; ++y) {
+        const bool has_next_y = y < height_minus;
+        const int y_index = y * width;
+        if ((y & 0x1) == 0) {
+            int buffer_index = 0;
+            int *buf1 = dither_buffer[0];
+            int *buf2 = dither_buffer[1];
+            for (int x = 0; x < width; ++x) {
+                const int index = y_index + x;
+                const int rgb = array[index];
+                const int red = clamp((rgb >> 16 & 0xFF) + buf1[buffer_index++]);
+                const int green = clamp((rgb >> 8 & 0xFF) + buf1[buffer_index++]);
+                const int blue = clamp((rgb & 0xFF) + buf1[buffer_index++]);
+                const int closest = get_best_full_color(red, green, blue);
+                const int delta_r = red - (closest >> 16 & 0xFF);
+                const int delta_g = green - (closest >> 8 & 0xFF);
+                const int delta_b = blue - (closest & 0xFF);
+                if (x < width_minus) {
+                    buf1[buffer_index] = delta_r >> 1;
+                    buf1[buffer_index + 1] = delta_g >> 1;
+                    buf1[buffer_index + 2] = delta_b >> 1;
+                }
+                if (has_next_y) {
+                    if (x > 0) {
+                        buf2[buffer_index - 6] = delta_r >> 2;
+                        buf2[buffer_index - 5] = delta_g >> 2;
+                        buf2[buffer_index - 4] = delta_b >> 2;
+                    }
+                    buf2[buffer_index - 3] = delta_r >> 2;
+                    buf2[buffer_index - 2] = delta_g >> 2;
+                    buf2[buffer_index - 1] = delta_b >> 2;
+                }
+                data[index] = get_best_color(closest);
+            }
+        } else {
+            int buffer_index = width + (width << 1) - 1;
+            int *buf1 = dither_buffer[1];
+            int *buf2 = dither_buffer[0];
+            for (int x = width - 1; x >= 0; --x) {
+                const int index = y_index + x;
+                const int rgb = array[index];
+                const int blue = clamp((rgb & 0xFF) + buf1[buffer_index--]);
+                const int green = clamp((rgb >> 8 & 0xFF) + buf1[buffer_index--]);
+                const int red = clamp((rgb >> 16 & 0xFF) + buf1[buffer_index--]);
+                const int closest = get_best_full_color(red, green, blue);
+                const int delta_r = red - (closest >> 16 & 0xFF);
+                const int delta_g = green - (closest >> 8 & 0xFF);
+                const int delta_b = blue - (closest & 0xFF);
+                if (x > 0) {
+                    buf1[buffer_index] = delta_b >> 1;
+                    buf1[buffer_index - 1] = delta_g >> 1;
+                    buf1[buffer_index - 2] = delta_r >> 1;
+                }
+                if (has_next_y) {
+                    if (x < width_minus) {
+                        buf2[buffer_index + 6] = delta_b >> 2;
+                        buf2[buffer_index + 5] = delta_g >> 2;
+                        buf2[buffer_index + 4] = delta_r >> 2;
+                    }
+                    buf2[buffer_index + 3] = delta_b >> 2;
+                    buf2[buffer_index + 2] = delta_g >> 2;
+                    buf2[buffer_index + 1] = delta_r >> 2;
+                }
+                data[index] = get_best_color(closest);
+            }
+        }
+    }
+
+    env->ReleasePrimitiveArrayCritical(arr, array, JNI_ABORT);
+}
+
+}
@@ -135,7 +135,7 @@ public final class EzMediaCore implements MediaLibraryCore {
   }
 
   private void initProviders() {
-    DitherLookupUtil.init();
+    DitherLookupUtil.init(this.libraryPath);
     StringSearch.init();
     SpotifyProvider.init(this);
     this.logger.info(Locale.FINISHED_LOOKUP_CACHE.build());
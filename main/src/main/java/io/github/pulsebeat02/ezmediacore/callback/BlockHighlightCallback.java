@@ -32,10 +32,39 @@ import org.bukkit.Location;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+/*
+
+Draws the screen out of debug markers, one per pixel.
+
+A marker stays on the client until it expires, and showing a new marker
+at the same block replaces the old one. So instead of sending every
+marker again each frame, markers are shown for MARKER_LIFETIME_MS longer
+than a frame lasts and only resent when their color changed or when they
+are within REFRESH_MARGIN_MS of expiring. The markers of a frame are
+sent together through PacketHandler#displayDebugMarkers.
+
+ */
 public class BlockHighlightCallback extends FrameCallback
     implements BlockHighlightCallbackDispatcher {
 
+  private static final long MARKER_LIFETIME_MS;
+  private static final long REFRESH_MARGIN_MS;
+
+  static {
+    MARKER_LIFETIME_MS = 2000L;
+    REFRESH_MARGIN_MS = 500L;
+  }
+
   private final Location location;
+  private final int[] x;
+  private final int[] y;
+  private final int[] z;
+  private final int[] colors;
+  private final long[] sent;
+  private final int[] markerX;
+  private final int[] markerY;
+  private final int[] markerZ;
+  private final int[] markerColors;
 
   BlockHighlightCallback(
       @NotNull final MediaLibraryCore core,
@@ -46,40 +75,69 @@ public class BlockHighlightCallback extends FrameCallback
     super(core, viewers, dimension, delay);
     checkNotNull(location, "Location cannot be null!");
     this.location = location;
+    final int length = dimension.getWidth() * dimension.getHeight();
+    this.x = new int[length];
+    this.y = new int[length];
+    this.z = new int[length];
+    this.colors = new int[length];
+    this.sent = new long[length];
+    this.markerX = new int[length];
+    this.markerY = new int[length];
+    this.markerZ = new int[length];
+    this.markerColors = new int[length];
+    this.calculatePositions(dimension.getWidth(), dimension.getHeight());
+  }
+
+  private void calculatePositions(final int width, final int height) {
+    final int left = (int) (this.location.getX() - (width / 2D));
+    final int top = (int) (this.location.getY() + (height / 2D));
+    final int depth = (int) this.location.getZ();
+    for (int row = 0; row < height; row++) {
+      for (int column = 0; column < width; column++) {
+        final int index = width * row + column;
+        this.x[index] = left + column;
+        this.y[index] = top - row;
+        this.z[index] = depth;
+      }
+    }
   }
 
   @Override
   public void process(final int[] data) {
     final long time = System.currentTimeMillis();
     final long delay = this.getDelayConfiguration().getDelay();
-    final int z = (int) this.location.getZ();
-    final Dimension dimension = this.getDimensions();
-    final int width = dimension.getWidth();
-    final int height = dimension.getHeight();
     if (time - this.getLastUpdated() >= delay) {
       this.setLastUpdated(time);
-      this.displayDebugMarkerScreen(width, height, z, delay, data);
+      this.displayDebugMarkerScreen(time, delay, data);
     }
   }
 
   private void displayDebugMarkerScreen(
-      final int width,
-      final int height,
-      final int z,
-      final long delay,
-      final int @NotNull [] data) {
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        this.getPacketHandler()
-            .displayDebugMarker(
-                this.getWatchers().getViewers(),
-                (int) (this.location.getX() - (width / 2D)) + x,
-                (int) (this.location.getY() + (height / 2D)) - y,
-                z,
-                data[width * y + x],
-                (int) (delay + 100));
+      final long time, final long delay, final int @NotNull [] data) {
+    final int length = Math.min(data.length, this.colors.length);
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      final int color = data[i];
+      if (color == this.colors[i] && time - this.sent[i] < MARKER_LIFETIME_MS - REFRESH_MARGIN_MS) {
+        continue;
       }
+      this.colors[i] = color;
+      this.sent[i] = time;
+      this.markerX[count] = this.x[i];
+      this.markerY[count] = this.y[i];
+      this.markerZ[count] = this.z[i];
+      this.markerColors[count] = color;
+      count++;
     }
+    this.getPacketHandler()
+        .displayDebugMarkers(
+            this.getWatchers().getViewers(),
+            this.markerX,
+            this.markerY,
+            this.markerZ,
+            this.markerColors,
+            count,
+            (int) (delay + MARKER_LIFETIME_MS));
   }
 
   @Override
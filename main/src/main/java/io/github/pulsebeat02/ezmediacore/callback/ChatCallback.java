@@ -66,6 +66,7 @@ public class ChatCallback extends FrameCallback implements ChatCallbackDispatche
       @NotNull final IntBuffer data) {
     this.getPacketHandler()
         .displayChat(
+            this,
             this.getWatchers().getViewers(),
             data,
             this.character.getName(),
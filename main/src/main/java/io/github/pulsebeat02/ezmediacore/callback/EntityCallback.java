@@ -50,8 +50,10 @@ public class EntityCallback<T extends Entity> extends FrameCallback
   private final Class<T> type;
   private final Consumer<T> consumer;
   private final Entity[] entities;
+  private final int[] ids;
   private final Location location;
   private final NamedEntityString name;
+  private final boolean virtual;
 
   EntityCallback(
       @NotNull final MediaLibraryCore core,
@@ -61,7 +63,8 @@ public class EntityCallback<T extends Entity> extends FrameCallback
       @NotNull final NamedEntityString character,
       @NotNull final Class<T> type,
       @Nullable final Consumer<T> consumer,
-      @NotNull final DelayConfiguration delay) {
+      @NotNull final DelayConfiguration delay,
+      final boolean virtual) {
     super(core, viewers, dimension, delay);
     checkNotNull(location, "Location cannot be null!");
     checkNotNull(type, "Entity class cannot be null!");
@@ -70,7 +73,9 @@ public class EntityCallback<T extends Entity> extends FrameCallback
     this.type = type;
     this.consumer = consumer;
     this.name = character;
-    this.entities = this.getModifiedEntities();
+    this.virtual = virtual;
+    this.entities = virtual ? new Entity[0] : this.getModifiedEntities();
+    this.ids = virtual ? this.spawnVirtualEntities() : new int[0];
   }
 
   private Entity @NotNull [] getModifiedEntities() {
@@ -94,6 +99,37 @@ public class EntityCallback<T extends Entity> extends FrameCallback
     }
   }
 
+  /*
+
+  Virtual screens only send spawn and metadata packets to the viewers, so
+  nothing is added to the world. The entities are set up the same way as
+  spawned ones, but the consumer is called on entities which are never
+  ticked.
+
+   */
+  private int @NotNull [] spawnVirtualEntities() {
+    final int height = this.getDimensions().getHeight();
+    final Location[] locations = new Location[height];
+    final Location spawn = this.location.clone();
+    for (int i = height - 1; i >= 0; i--) {
+      locations[i] = spawn.clone();
+      spawn.add(0.0, 0.225, 0.0);
+    }
+    final String name = this.repeat(this.name.getName(), height);
+    return this.getPacketHandler()
+        .spawnVirtualEntities(
+            this.getWatchers().getViewers(),
+            locations,
+            this.type,
+            entity -> {
+              if (this.consumer != null) {
+                this.consumer.accept(entity);
+              }
+              entity.setCustomName(name);
+              entity.setCustomNameVisible(true);
+            });
+  }
+
   private @NotNull String repeat(@NotNull final String name, final int height) {
     final StringBuilder builder = new StringBuilder();
     for (int i = 0; i < height; i++) {
@@ -111,10 +147,13 @@ public class EntityCallback<T extends Entity> extends FrameCallback
   }
 
   private void removeEntities() {
-    if (this.entities != null) {
+    if (this.virtual) {
+      this.getPacketHandler().removeVirtualEntities(this.ids);
+    } else if (this.entities != null) {
       for (final Entity entity : this.entities) {
         entity.remove();
       }
+      this.getPacketHandler().forgetEntities(this.entities);
     }
   }
 
@@ -135,14 +174,13 @@ public class EntityCallback<T extends Entity> extends FrameCallback
       @NotNull final String name,
       @NotNull final IntBuffer data,
       final int width) {
-    this.getPacketHandler()
-        .displayEntities(
-            this.getWatchers().getViewers(),
-            this.entities,
-            data,
-            name,
-            width,
-            this.entities.length / width);
+    if (this.virtual) {
+      this.getPacketHandler()
+          .displayVirtualEntities(viewers, this.ids, data, name, width, this.ids.length);
+    } else {
+      this.getPacketHandler()
+          .displayEntities(viewers, this.entities, data, name, width, this.entities.length);
+    }
   }
 
   @Override
@@ -150,6 +188,11 @@ public class EntityCallback<T extends Entity> extends FrameCallback
     return this.entities;
   }
 
+  @Override
+  public boolean isVirtual() {
+    return this.virtual;
+  }
+
   @Override
   public @NotNull NamedEntityString getStringName() {
     return this.name;
@@ -175,6 +218,7 @@ public class EntityCallback<T extends Entity> extends FrameCallback
     private Location location;
     private Class<T> entity;
     private Consumer<T> consumer;
+    private boolean virtual;
 
     public Builder() {}
 
@@ -244,6 +288,12 @@ public class EntityCallback<T extends Entity> extends FrameCallback
       return this;
     }
 
+    @Contract("_ -> this")
+    public @NotNull Builder<T> virtual(final boolean virtual) {
+      this.virtual = virtual;
+      return this;
+    }
+
     @Contract(" -> this")
     public @NotNull Builder<T> areaEffectCloudPlayer() {
       this.entity = (Class<T>) AREA_EFFECT_CLOUD.getKey().getEntityClass();
@@ -268,7 +318,8 @@ public class EntityCallback<T extends Entity> extends FrameCallback
           this.character,
           this.entity,
           this.consumer,
-          this.getDelay());
+          this.getDelay(),
+          this.virtual);
     }
   }
 }
@@ -27,10 +27,15 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.callback.implementation.MapCallbackDispatcher;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.player.PlayerControls;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.UUID;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -40,6 +45,7 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
   private final DitherAlgorithm algorithm;
   private final int map;
   private final int blockWidth;
+  private ByteBufCarrier output;
 
   MapCallback(
       @NotNull final MediaLibraryCore core,
@@ -68,19 +74,73 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
     }
   }
 
+  @Override
+  public void process(@NotNull final IntBuffer data) {
+    final long time = System.currentTimeMillis();
+    final Dimension dimension = this.getDimensions();
+    final UUID[] viewers = this.getWatchers().getViewers();
+    if (time - this.getLastUpdated() >= this.getDelayConfiguration().getDelay()) {
+      this.setLastUpdated(time);
+      final ByteBufCarrier output = this.getOutput(data.limit());
+      this.algorithm.ditherInto(data, this.blockWidth, output.getNioBuffer());
+      this.sendMaps(viewers, dimension, output);
+    }
+  }
+
+  @Override
+  public void prepare(final int @NotNull [] data, @NotNull final ByteBuffer output) {
+    this.algorithm.ditherInto(data, this.blockWidth, output);
+  }
+
+  @Override
+  public void processPrepared(@NotNull final BufferCarrier data) {
+    final long time = System.currentTimeMillis();
+    final Dimension dimension = this.getDimensions();
+    final UUID[] viewers = this.getWatchers().getViewers();
+    if (time - this.getLastUpdated() >= this.getDelayConfiguration().getDelay()) {
+      this.setLastUpdated(time);
+      this.sendMaps(viewers, dimension, data);
+    }
+  }
+
+  @Override
+  public void preparePlayerStateChange(@NotNull final PlayerControls status) {
+    super.preparePlayerStateChange(status);
+    if (status == PlayerControls.RELEASE) {
+      this.getPacketHandler().releaseMaps(this.map);
+    }
+  }
+
   private void displayMaps(
       @NotNull final UUID[] viewers,
       @NotNull final Dimension dimension,
       final int @NotNull [] data) {
-    final int width = this.blockWidth;
+    final ByteBufCarrier output = this.getOutput(data.length);
+    this.algorithm.ditherInto(data, this.blockWidth, output.getNioBuffer());
+    this.sendMaps(viewers, dimension, output);
+  }
+
+  private void sendMaps(
+      @NotNull final UUID[] viewers,
+      @NotNull final Dimension dimension,
+      @NotNull final BufferCarrier data) {
     this.getPacketHandler()
         .displayMaps(
             viewers,
-            this.algorithm.ditherIntoMinecraft(data, width),
+            data,
             this.map,
             dimension.getHeight(),
             dimension.getWidth(),
-            width);
+            this.blockWidth);
+  }
+
+  private @NotNull ByteBufCarrier getOutput(final int length) {
+    ByteBufCarrier output = this.output;
+    if (output == null || output.getCapacity() != length) {
+      output = ByteBufCarrier.ofByteBufCarrier(length);
+      this.output = output;
+    }
+    return output;
   }
 
   @Override
@@ -93,6 +153,11 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
     return this.algorithm;
   }
 
+  @Override
+  public int getBlockWidth() {
+    return this.blockWidth;
+  }
+
   public static final class Builder extends CallbackBuilder {
 
     private DitherAlgorithm algorithm = Algorithm.FILTER_LITE;
@@ -26,14 +26,17 @@ package io.github.pulsebeat02.ezmediacore.callback;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.entity.NamedEntityString;
 import io.github.pulsebeat02.ezmediacore.callback.implementation.ScoreboardCallbackDispatcher;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
 import io.github.pulsebeat02.ezmediacore.player.PlayerControls;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.ChatRowCache;
 import io.github.pulsebeat02.ezmediacore.utility.task.TaskUtils;
 import java.lang.reflect.Field;
 import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 import net.md_5.bungee.api.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.scoreboard.DisplaySlot;
@@ -57,6 +60,9 @@ public class ScoreboardCallback extends FrameCallback implements ScoreboardCallb
 
   private final String name;
   private final Scoreboard scoreboard;
+  private final String character;
+  private volatile int[] sent;
+  private volatile String[] rows;
   private int id;
 
   ScoreboardCallback(
@@ -69,6 +75,7 @@ public class ScoreboardCallback extends FrameCallback implements ScoreboardCallb
     checkArgument(id.getValue() >= 0, "Scoreboard id must be greater than or equal to 0!");
     this.name = "%s Video Player (%s)".formatted(core.getPlugin().getName(), id.getValue());
     this.scoreboard = this.setScoreboard();
+    this.character = NamedEntityString.NORMAL_SQUARE.getName();
   }
 
   private static ChatColor @NotNull [] getChatColors()
@@ -83,44 +90,79 @@ public class ScoreboardCallback extends FrameCallback implements ScoreboardCallb
     return this.getCore().getPlugin().getServer().getScoreboardManager().getNewScoreboard();
   }
 
+  /*
+
+  Frames are sent as team packets straight from the display thread. Only
+  the teams whose row of pixels changed since the last frame are updated.
+  The Bukkit scoreboard is only touched when the player starts, and when
+  it pauses, on the main thread, to give the teams the rows last shown, so
+  re-sending the scoreboard to a client doesn't show a blank screen.
+
+   */
   @Override
   public void process(final int[] data) {
-    TaskUtils.sync(this.getCore(), this.processRunnable(IntBuffer.wrap(data)));
-  }
-
-  private @NotNull <T> Callable<T> processRunnable(@NotNull final IntBuffer data) {
-    return () -> {
-      final long time = System.currentTimeMillis();
-      final Viewers viewers = this.getWatchers();
-      final Dimension dimension = this.getDimensions();
-      if (time - this.getLastUpdated() >= this.getDelayConfiguration().getDelay()) {
-        this.setLastUpdated(time);
-        this.setViewerScoreboards();
-        this.displayScoreboard(viewers, dimension, data);
+    final long time = System.currentTimeMillis();
+    if (time - this.getLastUpdated() >= this.getDelayConfiguration().getDelay()) {
+      this.setLastUpdated(time);
+      this.displayScoreboard(IntBuffer.wrap(data));
+    }
+  }
+
+  private void displayScoreboard(@NotNull final IntBuffer data) {
+    final int width = this.getDimensions().getWidth();
+    final int height = Math.min(this.getDimensions().getHeight(), data.capacity() / width);
+    int[] sent = this.sent;
+    String[] rows = this.rows;
+    final boolean full = sent == null || sent.length != width * height;
+    if (full) {
+      sent = new int[width * height];
+      rows = new String[height];
+      this.sent = sent;
+      this.rows = rows;
+    }
+    final List<String> teams = new ArrayList<>();
+    final List<String> suffixes = new ArrayList<>();
+    for (int y = 0; y < height; y++) {
+      final int start = y * width;
+      if (!full && this.isRowUnchanged(sent, data, start, width)) {
+        continue;
       }
-      return null;
-    };
+      data.get(start, sent, start, width);
+      final StringBuilder suffix = new StringBuilder();
+      ChatRowCache.appendRow(suffix, this.character, data, start, width);
+      rows[y] = suffix.toString();
+      teams.add(getTeamName(y));
+      suffixes.add(rows[y]);
+    }
+    this.getPacketHandler()
+        .displayScoreboardTeams(this.getWatchers().getViewers(), teams, suffixes);
   }
 
-  private void setViewerScoreboards() {
-    final Viewers viewers = this.getWatchers();
-    for (final Player player : viewers.getPlayers()) {
-      player.setScoreboard(this.scoreboard);
+  private void updateTeams() {
+    final String[] rows = this.rows;
+    if (rows == null) {
+      return;
+    }
+    for (int y = 0; y < rows.length; y++) {
+      final Team team = this.scoreboard.getTeam(getTeamName(y));
+      if (team != null && rows[y] != null) {
+        team.setSuffix(rows[y]);
+      }
     }
   }
 
-  private void displayScoreboard(
-      @NotNull final Viewers viewers,
-      @NotNull final Dimension dimension,
-      @NotNull final IntBuffer data) {
-    this.getPacketHandler()
-        .displayScoreboard(
-            viewers.getViewers(),
-            this.scoreboard,
-            data,
-            this.name,
-            dimension.getWidth(),
-            dimension.getHeight());
+  private boolean isRowUnchanged(
+      final int @NotNull [] sent, @NotNull final IntBuffer data, final int start, final int width) {
+    for (int i = start; i < start + width; i++) {
+      if (sent[i] != data.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static @NotNull String getTeamName(final int row) {
+    return "SLOT_" + row;
   }
 
   @Override
@@ -129,6 +171,21 @@ public class ScoreboardCallback extends FrameCallback implements ScoreboardCallb
     super.preparePlayerStateChange(status);
     if (status == PlayerControls.START) {
       this.registerScreen();
+      this.setViewerScoreboards();
+      this.sent = null;
+    } else if (status == PlayerControls.PAUSE) {
+      TaskUtils.sync(
+          this.getCore(),
+          () -> {
+            this.updateTeams();
+            return null;
+          });
+    }
+  }
+
+  private void setViewerScoreboards() {
+    for (final Player player : this.getWatchers().getPlayers()) {
+      player.setScoreboard(this.scoreboard);
     }
   }
 
@@ -140,7 +197,7 @@ public class ScoreboardCallback extends FrameCallback implements ScoreboardCallb
   }
 
   private void registerTeam(@NotNull final Objective objective, final int i) {
-    final Team team = this.scoreboard.registerNewTeam("SLOT_" + i);
+    final Team team = this.scoreboard.registerNewTeam(getTeamName(i));
     final String entry = COLORS[i].toString();
     team.addEntry(entry);
     objective.getScore(entry).setScore(15 - i);
@@ -31,6 +31,9 @@ public final class Algorithm {
 
   public static final DitherAlgorithm FILTER_LITE;
   public static final DitherAlgorithm FLOYD_STEINBERG;
+  public static final DitherAlgorithm FILTER_LITE_PARALLEL;
+  public static final DitherAlgorithm FLOYD_STEINBERG_PARALLEL;
+  public static final DitherAlgorithm FILTER_LITE_NATIVE;
   public static final DitherAlgorithm ORDERED_2X2;
   public static final DitherAlgorithm ORDERED_4X4;
   public static final DitherAlgorithm ORDERED_8X8;
@@ -40,6 +43,9 @@ public final class Algorithm {
   static {
     FILTER_LITE = new FilterLiteDither();
     FLOYD_STEINBERG = new FloydDither();
+    FILTER_LITE_PARALLEL = new FilterLiteDither(true);
+    FLOYD_STEINBERG_PARALLEL = new FloydDither(true);
+    FILTER_LITE_NATIVE = new NativeFilterLiteDither();
     ORDERED_2X2 = new OrderedDither(DitherType.TWO);
     ORDERED_4X4 = new OrderedDither(DitherType.FOUR);
     ORDERED_8X8 = new OrderedDither(DitherType.EIGHT);
@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.pulsebeat02.ezmediacore.dither.algorithm;
+
+import java.io.Serial;
+import java.util.concurrent.RecursiveAction;
+import org.jetbrains.annotations.NotNull;
+
+final class DiffusionBand extends RecursiveAction {
+
+  @Serial private static final long serialVersionUID = 2907314472391735094L;
+
+  private RowDiffuser diffuser;
+  private int[] buffer;
+  private byte[] data;
+  private int[] states;
+  private int[] carries;
+  private int width;
+  private int start;
+  private int end;
+
+  DiffusionBand() {}
+
+  void prepare(
+      @NotNull final RowDiffuser diffuser,
+      final int @NotNull [] buffer,
+      final byte @NotNull [] data,
+      final int @NotNull [] states,
+      final int @NotNull [] carries,
+      final int width,
+      final int start,
+      final int end) {
+    this.reinitialize();
+    this.diffuser = diffuser;
+    this.buffer = buffer;
+    this.data = data;
+    this.states = states;
+    this.carries = carries;
+    this.width = width;
+    this.start = start;
+    this.end = end;
+  }
+
+  @Override
+  protected void compute() {
+    int carry = 0;
+    for (int y = this.start; y < this.end; y++) {
+      carry =
+          this.diffuser.diffuseRow(
+              this.buffer, this.data, this.states, y, this.width, carry, false);
+      this.carries[y] = carry;
+    }
+  }
+
+  int getStart() {
+    return this.start;
+  }
+
+  int getEnd() {
+    return this.end;
+  }
+}
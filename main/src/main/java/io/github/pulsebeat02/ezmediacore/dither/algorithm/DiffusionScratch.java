@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.pulsebeat02.ezmediacore.dither.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Per-thread scratch space for the error diffusion dithers. Every array only ever grows, so once a
+ * thread has dithered a frame of a given size, later frames of the same size allocate nothing.
+ */
+final class DiffusionScratch {
+
+  private static final ThreadLocal<DiffusionScratch> SCRATCH;
+
+  static {
+    SCRATCH = ThreadLocal.withInitial(DiffusionScratch::new);
+  }
+
+  private final List<DiffusionBand> bands;
+  private int[][] errors;
+  private int[] states;
+  private int[] carries;
+  private byte[] data;
+  private int[] pixels;
+
+  DiffusionScratch() {
+    this.bands = new ArrayList<>();
+    this.errors = new int[2][0];
+    this.states = new int[0];
+    this.carries = new int[0];
+    this.data = new byte[0];
+    this.pixels = new int[0];
+  }
+
+  static @NotNull DiffusionScratch get() {
+    return SCRATCH.get();
+  }
+
+  int @NotNull [][] getErrors(final int width) {
+    final int length = width << 2;
+    if (this.errors[0].length < length) {
+      this.errors = new int[2][length];
+    } else {
+      Arrays.fill(this.errors[0], 0);
+      Arrays.fill(this.errors[1], 0);
+    }
+    return this.errors;
+  }
+
+  int @NotNull [] getStates(final int length) {
+    if (this.states.length < length) {
+      this.states = new int[length];
+    }
+    return this.states;
+  }
+
+  int @NotNull [] getCarries(final int height) {
+    if (this.carries.length < height) {
+      this.carries = new int[height];
+    }
+    return this.carries;
+  }
+
+  byte @NotNull [] getData(final int length) {
+    if (this.data.length < length) {
+      this.data = new byte[length];
+    }
+    return this.data;
+  }
+
+  /**
+   * Returns an array for the pixels of a frame. Unlike the other arrays, it has exactly the length
+   * of the frame, as the algorithms take the frame size from it.
+   */
+  int @NotNull [] getPixels(final int length) {
+    if (this.pixels.length != length) {
+      this.pixels = new int[length];
+    }
+    return this.pixels;
+  }
+
+  @NotNull
+  DiffusionBand getBand(final int index) {
+    while (this.bands.size() <= index) {
+      this.bands.add(new DiffusionBand());
+    }
+    return this.bands.get(index);
+  }
+}
@@ -31,11 +31,23 @@ import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import org.jetbrains.annotations.NotNull;
 
 public class FilterLiteDither implements DitherAlgorithm {
 
-  FilterLiteDither() {}
+  private final boolean parallel;
+  private final RowDiffuser diffuser;
+
+  FilterLiteDither() {
+    this(false);
+  }
+
+  FilterLiteDither(final boolean parallel) {
+    this.parallel = parallel;
+    this.diffuser = this::diffuseRow;
+  }
 
   /**
    * Performs Filter Lite Dithering at a more optimized pace while giving similar results to Floyd
@@ -48,7 +60,7 @@ public class FilterLiteDither implements DitherAlgorithm {
     final int height = buffer.length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
-    final int[][] dither_buffer = new int[2][width + width << 1];
+    final int[][] dither_buffer = DiffusionScratch.get().getErrors(width);
 
     /*
 
@@ -142,11 +154,37 @@ public class FilterLiteDither implements DitherAlgorithm {
 
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
+    final ByteBuf data = Unpooled.buffer(buffer.length);
+    this.ditherInto(buffer, width, data.nioBuffer(0, buffer.length));
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  /*
+
+  Error diffusion works on whole rows at once and its parallel form splits
+  the frame into bands, so the pixels are copied into a per-thread array
+  once instead of being read from the buffer one at a time.
+
+   */
+  @Override
+  public void ditherInto(
+      @NotNull final IntBuffer buffer, final int width, @NotNull final ByteBuffer data) {
+    final int[] pixels = DiffusionScratch.get().getPixels(buffer.limit());
+    buffer.get(0, pixels);
+    this.ditherInto(pixels, width, data);
+  }
+
+  @Override
+  public void ditherInto(
+      final int @NotNull [] buffer, final int width, @NotNull final ByteBuffer data) {
+    if (this.parallel) {
+      ParallelDiffusion.diffuse(buffer, width, this.diffuser, data);
+      return;
+    }
     final int height = buffer.length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
-    final int[][] dither_buffer = new int[2][width << 2];
-    final ByteBuf data = Unpooled.buffer(buffer.length);
+    final int[][] dither_buffer = DiffusionScratch.get().getErrors(width);
     for (int y = 0; y < height; y++) {
       final boolean hasNextY = y < heightMinus;
       final int yIndex = y * width;
@@ -182,7 +220,7 @@ public class FilterLiteDither implements DitherAlgorithm {
             buf2[bufferIndex - 2] = delta_g >> 2;
             buf2[bufferIndex - 1] = delta_b >> 2;
           }
-          data.setByte(index, this.getBestColor(closest));
+          data.put(index, this.getBestColor(closest));
         }
       } else {
         int bufferIndex = width + (width << 1) - 1;
@@ -216,11 +254,58 @@ public class FilterLiteDither implements DitherAlgorithm {
             buf2[bufferIndex + 2] = delta_g >> 2;
             buf2[bufferIndex + 1] = delta_r >> 2;
           }
-          data.setByte(index, this.getBestColor(closest));
+          data.put(index, this.getBestColor(closest));
         }
       }
     }
-    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  private int diffuseRow(
+      final int @NotNull [] buffer,
+      final byte @NotNull [] data,
+      final int @NotNull [] states,
+      final int y,
+      final int width,
+      final int carry,
+      final boolean reconcile) {
+    final int yIndex = y * width;
+    final boolean forward = (y & 0x1) == 0;
+    final int step = forward ? 1 : -1;
+    int error_r = (byte) (carry >> 16);
+    int error_g = (byte) (carry >> 8);
+    int error_b = (byte) carry;
+    int delta_r = 0;
+    int delta_g = 0;
+    int delta_b = 0;
+    for (int i = 0, x = forward ? 0 : width - 1; i < width; i++, x += step) {
+      final int index = yIndex + x;
+      final int state = RowDiffuser.pack(error_r, error_g, error_b);
+      if (!reconcile) {
+        states[index] = state;
+      } else if (states[index] == state) {
+        return RowDiffuser.CONVERGED;
+      }
+      final int rgb = buffer[index];
+      int red = rgb >> 16 & 0xFF;
+      int green = rgb >> 8 & 0xFF;
+      int blue = rgb & 0xFF;
+      red = (red += error_r) > 255 ? 255 : red < 0 ? 0 : red;
+      green = (green += error_g) > 255 ? 255 : green < 0 ? 0 : green;
+      blue = (blue += error_b) > 255 ? 255 : blue < 0 ? 0 : blue;
+      final int closest = this.getBestFullColor(red, green, blue);
+      delta_r = red - (closest >> 16 & 0xFF);
+      delta_g = green - (closest >> 8 & 0xFF);
+      delta_b = blue - (closest & 0xFF);
+      error_r = delta_r >> 1;
+      error_g = delta_g >> 1;
+      error_b = delta_b >> 1;
+      data[index] = this.getBestColor(closest);
+    }
+    return RowDiffuser.pack(delta_r >> 2, delta_g >> 2, delta_b >> 2);
+  }
+
+  public boolean isParallel() {
+    return this.parallel;
   }
 
   private int getBestFullColor(final int red, final int green, final int blue) {
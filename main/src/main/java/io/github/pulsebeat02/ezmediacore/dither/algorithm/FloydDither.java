@@ -32,6 +32,8 @@ import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.awt.image.BufferedImage;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -43,7 +45,17 @@ import org.jetbrains.annotations.NotNull;
  */
 public class FloydDither implements DitherAlgorithm {
 
-  FloydDither() {}
+  private final boolean parallel;
+  private final RowDiffuser diffuser;
+
+  FloydDither() {
+    this(false);
+  }
+
+  FloydDither(final boolean parallel) {
+    this.parallel = parallel;
+    this.diffuser = this::diffuseRow;
+  }
 
   private int getColorFromMinecraftPalette(final byte val) {
     return PALETTE[(val + 256) % 256];
@@ -85,7 +97,7 @@ public class FloydDither implements DitherAlgorithm {
     final int height = buffer.length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
-    final int[][] dither_buffer = new int[2][width + width << 1];
+    final int[][] dither_buffer = DiffusionScratch.get().getErrors(width);
     for (int y = 0; y < height; y++) {
       final boolean hasNextY = y < heightMinus;
       final int yIndex = y * width;
@@ -177,11 +189,30 @@ public class FloydDither implements DitherAlgorithm {
 
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
+    final ByteBuf data = Unpooled.buffer(buffer.length);
+    this.ditherInto(buffer, width, data.nioBuffer(0, buffer.length));
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void ditherInto(
+      @NotNull final IntBuffer buffer, final int width, @NotNull final ByteBuffer data) {
+    final int[] pixels = DiffusionScratch.get().getPixels(buffer.limit());
+    buffer.get(0, pixels);
+    this.ditherInto(pixels, width, data);
+  }
+
+  @Override
+  public void ditherInto(
+      final int @NotNull [] buffer, final int width, @NotNull final ByteBuffer data) {
+    if (this.parallel) {
+      ParallelDiffusion.diffuse(buffer, width, this.diffuser, data);
+      return;
+    }
     final int height = buffer.length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
-    final int[][] dither_buffer = new int[2][width + width << 1];
-    final ByteBuf data = Unpooled.buffer(buffer.length);
+    final int[][] dither_buffer = DiffusionScratch.get().getErrors(width);
     for (int y = 0; y < height; y++) {
       final boolean hasNextY = y < heightMinus;
       final int yIndex = y * width;
@@ -224,7 +255,7 @@ public class FloydDither implements DitherAlgorithm {
               buf2[bufferIndex + 2] = (int) (0.0625 * delta_b);
             }
           }
-          data.setByte(index, this.getBestColor(closest));
+          data.put(index, this.getBestColor(closest));
         }
       } else {
         int bufferIndex = width + (width << 1) - 1;
@@ -265,11 +296,59 @@ public class FloydDither implements DitherAlgorithm {
               buf2[bufferIndex - 2] = (int) (0.0625 * delta_r);
             }
           }
-          data.setByte(index, this.getBestColor(closest));
+          data.put(index, this.getBestColor(closest));
         }
       }
     }
-    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  private int diffuseRow(
+      final int @NotNull [] buffer,
+      final byte @NotNull [] data,
+      final int @NotNull [] states,
+      final int y,
+      final int width,
+      final int carry,
+      final boolean reconcile) {
+    final int yIndex = y * width;
+    final boolean forward = (y & 0x1) == 0;
+    final int step = forward ? 1 : -1;
+    int error_r = (byte) (carry >> 16);
+    int error_g = (byte) (carry >> 8);
+    int error_b = (byte) carry;
+    int delta_r = 0;
+    int delta_g = 0;
+    int delta_b = 0;
+    for (int i = 0, x = forward ? 0 : width - 1; i < width; i++, x += step) {
+      final int index = yIndex + x;
+      final int state = RowDiffuser.pack(error_r, error_g, error_b);
+      if (!reconcile) {
+        states[index] = state;
+      } else if (states[index] == state) {
+        return RowDiffuser.CONVERGED;
+      }
+      final int rgb = buffer[index];
+      int red = rgb >> 16 & 0xFF;
+      int green = rgb >> 8 & 0xFF;
+      int blue = rgb & 0xFF;
+      red = (red += error_r) > 255 ? 255 : red < 0 ? 0 : red;
+      green = (green += error_g) > 255 ? 255 : green < 0 ? 0 : green;
+      blue = (blue += error_b) > 255 ? 255 : blue < 0 ? 0 : blue;
+      final int closest = this.getBestFullColor(red, green, blue);
+      delta_r = red - (closest >> 16 & 0xFF);
+      delta_g = green - (closest >> 8 & 0xFF);
+      delta_b = blue - (closest & 0xFF);
+      error_r = (int) (0.4375 * delta_r);
+      error_g = (int) (0.4375 * delta_g);
+      error_b = (int) (0.4375 * delta_b);
+      data[index] = this.getBestColor(closest);
+    }
+    return RowDiffuser.pack(
+        (int) (0.3125 * delta_r), (int) (0.3125 * delta_g), (int) (0.3125 * delta_b));
+  }
+
+  public boolean isParallel() {
+    return this.parallel;
   }
 
   private int[] getRGBArray(@NotNull final BufferedImage image) {
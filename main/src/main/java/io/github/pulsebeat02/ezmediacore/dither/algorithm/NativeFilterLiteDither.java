@@ -0,0 +1,81 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import io.github.pulsebeat02.ezmediacore.natives.NativeDitherBuffer;
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+
+public final class NativeFilterLiteDither extends FilterLiteDither {
+
+  private volatile boolean initialized;
+
+  NativeFilterLiteDither() {}
+
+  /**
+   * Performs Filter Lite Dithering with the native library when it is available, writing the
+   * result into a direct buffer. Falls back to {@link FilterLiteDither} otherwise.
+   *
+   * @author PulseBeat_02
+   */
+  @Override
+  public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
+    if (!NativeDitherBuffer.isSupported()) {
+      return super.ditherIntoMinecraft(buffer, width);
+    }
+    final ByteBufCarrier carrier = ByteBufCarrier.ofByteBufCarrier(buffer.length);
+    this.ditherInto(buffer, width, carrier.getNioBuffer());
+    return carrier;
+  }
+
+  @Override
+  public void ditherInto(
+      final int @NotNull [] buffer, final int width, @NotNull final ByteBuffer data) {
+    if (!NativeDitherBuffer.isSupported() || !data.isDirect()) {
+      super.ditherInto(buffer, width, data);
+      return;
+    }
+    this.setupTables();
+    NativeDitherBuffer.dither(data, buffer, width);
+  }
+
+  private void setupTables() {
+    if (!this.initialized) {
+      synchronized (this) {
+        if (!this.initialized) {
+          NativeDitherBuffer.setupTables(
+              DitherLookupUtil.getColorMap(), DitherLookupUtil.getFullColorMap());
+          this.initialized = true;
+        }
+      }
+    }
+  }
+
+  public boolean isNative() {
+    return NativeDitherBuffer.isSupported();
+  }
+}
@@ -31,6 +31,8 @@ import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.Map;
 import org.jetbrains.annotations.NotNull;
 
@@ -149,19 +151,45 @@ public class OrderedDither implements DitherAlgorithm {
 
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
-    final int height = buffer.length / width;
     final ByteBuf data = Unpooled.buffer(buffer.length);
+    this.ditherInto(buffer, width, data.nioBuffer(0, buffer.length));
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void ditherInto(
+      final int @NotNull [] buffer, final int width, @NotNull final ByteBuffer data) {
+    final int height = buffer.length / width;
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
-        data.writeByte(
+        final int index = yIndex + x;
+        data.put(
+            index,
             this.getBestColor(
                 (int)
-                    (buffer[yIndex + x]
+                    (buffer[index]
+                        + this.correction * ((this.matrix[x % this.size][y % this.size] - 0.5)))));
+      }
+    }
+  }
+
+  @Override
+  public void ditherInto(
+      @NotNull final IntBuffer buffer, final int width, @NotNull final ByteBuffer data) {
+    final int height = buffer.limit() / width;
+    for (int y = 0; y < height; y++) {
+      final int yIndex = y * width;
+      for (int x = 0; x < width; x++) {
+        final int index = yIndex + x;
+        data.put(
+            index,
+            this.getBestColor(
+                (int)
+                    (buffer.get(index)
                         + this.correction * ((this.matrix[x % this.size][y % this.size] - 0.5)))));
       }
     }
-    return ByteBufCarrier.ofByteBufCarrier(data);
   }
 
   public float[][] getMatrix() {
@@ -0,0 +1,146 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Parallel error diffusion for the serpentine dithers (Filter Lite and Floyd
+Steinberg).
+
+A skewed wavefront does not work for these algorithms. Rows alternate
+direction, so the first pixel of a row reads the error written by the
+last pixel of the row above it, and every other pixel only reads the
+error of its neighbour in the same row. The whole frame is one long
+dependency chain, and the only thing passed from one row to the next is
+a single packed error value (the "carry").
+
+Instead, the frame is split into bands which are dithered speculatively
+in parallel, each band assuming a carry of zero for its first row. Every
+pixel records the error it received. Afterwards, the bands are stitched
+together in order: a row is re-run with the real carry until the error
+it receives matches the recorded one again, at which point the rest of
+the row (and its outgoing carry) is known to be identical. Errors shrink
+quickly along a row, so this usually stops after a handful of pixels,
+and the output stays byte-identical to the serial version.
+ */
+final class ParallelDiffusion {
+
+  private static final int MINIMUM_BAND_HEIGHT;
+
+  static {
+    MINIMUM_BAND_HEIGHT = 16;
+  }
+
+  private static volatile int fixedBands;
+
+  private ParallelDiffusion() {}
+
+  static void diffuse(
+      final int @NotNull [] buffer,
+      final int width,
+      @NotNull final RowDiffuser diffuser,
+      @NotNull final ByteBuffer output) {
+    final DiffusionScratch scratch = DiffusionScratch.get();
+    final int length = buffer.length;
+    final int height = length / width;
+    final byte[] data = scratch.getData(length);
+    final int[] states = scratch.getStates(length);
+    final int[] carries = scratch.getCarries(height);
+    final int count = forkBands(scratch, diffuser, buffer, data, states, carries, width, height);
+    for (int i = 0; i < count; i++) {
+      scratch.getBand(i).join();
+    }
+    stitchBands(scratch, count, diffuser, buffer, data, states, carries, width);
+    output.put(0, data, 0, length);
+  }
+
+  private static int forkBands(
+      @NotNull final DiffusionScratch scratch,
+      @NotNull final RowDiffuser diffuser,
+      final int @NotNull [] buffer,
+      final byte @NotNull [] data,
+      final int @NotNull [] states,
+      final int @NotNull [] carries,
+      final int width,
+      final int height) {
+    final int bands = getBandCount(height);
+    final int span = (height + bands - 1) / bands;
+    int count = 0;
+    for (int start = 0; start < height; start += span) {
+      final DiffusionBand band = scratch.getBand(count++);
+      band.prepare(
+          diffuser, buffer, data, states, carries, width, start, Math.min(height, start + span));
+      band.fork();
+    }
+    return count;
+  }
+
+  private static void stitchBands(
+      @NotNull final DiffusionScratch scratch,
+      final int count,
+      @NotNull final RowDiffuser diffuser,
+      final int @NotNull [] buffer,
+      final byte @NotNull [] data,
+      final int @NotNull [] states,
+      final int @NotNull [] carries,
+      final int width) {
+    int carry = carries[scratch.getBand(0).getEnd() - 1];
+    for (int i = 1; i < count; i++) {
+      final DiffusionBand band = scratch.getBand(i);
+      final int end = band.getEnd();
+      for (int y = band.getStart(); y < end; y++) {
+        final int result = diffuser.diffuseRow(buffer, data, states, y, width, carry, true);
+        if (result == RowDiffuser.CONVERGED || result == carries[y]) {
+          break;
+        }
+        carries[y] = result;
+        carry = result;
+      }
+      carry = carries[end - 1];
+    }
+  }
+
+  /**
+   * Splits every frame into a fixed number of bands instead of one per core, so the stitching can
+   * be tested on machines with few cores.
+   *
+   * @param bands the number of bands, or 0 to choose it by the parallelism of the common pool
+   */
+  static void setBandCount(final int bands) {
+    fixedBands = bands;
+  }
+
+  private static int getBandCount(final int height) {
+    final int bands = fixedBands;
+    if (bands > 0) {
+      return Math.min(bands, height);
+    }
+    return Math.max(
+        1, Math.min(ForkJoinPool.getCommonPoolParallelism(), height / MINIMUM_BAND_HEIGHT));
+  }
+}
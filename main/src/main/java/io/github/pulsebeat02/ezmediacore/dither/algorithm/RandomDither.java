@@ -32,6 +32,8 @@ import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.concurrent.ThreadLocalRandom;
 import org.jetbrains.annotations.NotNull;
 
@@ -45,14 +47,21 @@ public class RandomDither implements DitherAlgorithm {
 
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
-    final int height = buffer.length / width;
     final ByteBuf data = Unpooled.buffer(buffer.length);
+    this.ditherInto(buffer, width, data.nioBuffer(0, buffer.length));
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void ditherInto(
+      final int @NotNull [] buffer, final int width, @NotNull final ByteBuffer data) {
+    final int height = buffer.length / width;
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
         final int index = yIndex + x;
         final int color = buffer[index];
-        data.setByte(
+        data.put(
             index,
             this.getBestColor(
                 ((color >> 16) & 0xFF) + this.random.nextInt(-64, 65),
@@ -60,7 +69,21 @@ public class RandomDither implements DitherAlgorithm {
                 ((color) & 0xFF) + this.random.nextInt(-64, 65)));
       }
     }
-    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void ditherInto(
+      @NotNull final IntBuffer buffer, final int width, @NotNull final ByteBuffer data) {
+    final int length = buffer.limit();
+    for (int index = 0; index < length; index++) {
+      final int color = buffer.get(index);
+      data.put(
+          index,
+          this.getBestColor(
+              ((color >> 16) & 0xFF) + this.random.nextInt(-64, 65),
+              ((color >> 8) & 0xFF) + this.random.nextInt(-64, 65),
+              ((color) & 0xFF) + this.random.nextInt(-64, 65)));
+    }
   }
 
   @Override
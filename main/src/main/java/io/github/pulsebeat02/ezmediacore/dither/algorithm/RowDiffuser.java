@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm;
+
+import org.jetbrains.annotations.NotNull;
+
+@FunctionalInterface
+interface RowDiffuser {
+
+  int CONVERGED = -1;
+
+  /**
+   * Diffuses a single serpentine row, starting with the error carried in from the previous row.
+   * Each pixel stores the error it received in the states array, so the row can later be
+   * reconciled against a different carry. While reconciling, the row stops as soon as the error
+   * matches the stored state again and returns {@link #CONVERGED}.
+   *
+   * @param buffer the rgb buffer
+   * @param data the minecraft color output
+   * @param states the error received by each pixel
+   * @param y the row
+   * @param width the width of the buffer
+   * @param carry the packed error carried in from the previous row
+   * @param reconcile whether the row is being reconciled against a new carry
+   * @return the packed error carried into the next row, or {@link #CONVERGED}
+   */
+  int diffuseRow(
+      final int @NotNull [] buffer,
+      final byte @NotNull [] data,
+      final int @NotNull [] states,
+      final int y,
+      final int width,
+      final int carry,
+      final boolean reconcile);
+
+  static int pack(final int red, final int green, final int blue) {
+    return (red & 0xFF) << 16 | (green & 0xFF) << 8 | blue & 0xFF;
+  }
+}
@@ -31,6 +31,8 @@ import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import org.jetbrains.annotations.NotNull;
 
 public class SimpleDither implements DitherAlgorithm {
@@ -51,15 +53,31 @@ public class SimpleDither implements DitherAlgorithm {
 
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
-    final int height = buffer.length / width;
     final ByteBuf data = Unpooled.buffer(buffer.length);
+    this.ditherInto(buffer, width, data.nioBuffer(0, buffer.length));
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void ditherInto(
+      final int @NotNull [] buffer, final int width, @NotNull final ByteBuffer data) {
+    final int height = buffer.length / width;
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
-        data.writeByte(this.getBestColor(buffer[yIndex + x]));
+        final int index = yIndex + x;
+        data.put(index, this.getBestColor(buffer[index]));
       }
     }
-    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void ditherInto(
+      @NotNull final IntBuffer buffer, final int width, @NotNull final ByteBuffer data) {
+    final int length = buffer.limit();
+    for (int index = 0; index < length; index++) {
+      data.put(index, this.getBestColor(buffer.get(index)));
+    }
   }
 
   private byte getBestColor(final int red, final int green, final int blue) {
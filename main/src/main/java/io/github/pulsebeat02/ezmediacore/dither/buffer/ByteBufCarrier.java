@@ -10,11 +10,17 @@ import org.jetbrains.annotations.NotNull;
 public final class ByteBufCarrier implements BufferCarrier {
 
   private final ByteBuf buffer;
+  private ByteBuffer view;
 
   ByteBufCarrier(@NotNull final ByteBuf buffer) {
     this.buffer = buffer;
   }
 
+  @Contract(value = "_ -> new", pure = true)
+  public static @NotNull ByteBufCarrier ofByteBufCarrier(final int capacity) {
+    return new ByteBufCarrier(Unpooled.wrappedBuffer(ByteBuffer.allocateDirect(capacity)));
+  }
+
   @Contract(value = "_ -> new", pure = true)
   public static @NotNull ByteBufCarrier ofByteBufCarrier(@NotNull final ByteBuf buffer) {
     return new ByteBufCarrier(buffer);
@@ -34,4 +40,25 @@ public final class ByteBufCarrier implements BufferCarrier {
   public int getCapacity() {
     return this.buffer.capacity();
   }
+
+  @Override
+  public void getBytes(
+      final int index, final byte @NotNull [] destination, final int offset, final int length) {
+    this.buffer.getBytes(index, destination, offset, length);
+  }
+
+  /**
+   * Returns a view over the whole carrier which shares its content. The view is created once and
+   * reused, so algorithms can write into the same carrier every frame through {@link
+   * io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm#ditherInto(int[], int, ByteBuffer)}.
+   *
+   * @return the shared view
+   */
+  @Override
+  public @NotNull ByteBuffer getNioBuffer() {
+    if (this.view == null) {
+      this.view = this.buffer.nioBuffer(0, this.buffer.capacity());
+    }
+    return this.view;
+  }
 }
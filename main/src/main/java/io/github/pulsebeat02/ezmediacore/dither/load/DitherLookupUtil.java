@@ -26,6 +26,7 @@ package io.github.pulsebeat02.ezmediacore.dither.load;
 import io.github.pulsebeat02.ezmediacore.annotation.Author;
 import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
 import java.awt.Color;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
@@ -39,23 +40,26 @@ public final class DitherLookupUtil {
   public static final byte[] COLOR_MAP;
   public static final int[] FULL_COLOR_MAP;
 
+  private static boolean loaded;
+
   static {
     COLOR_MAP = new byte[128 * 128 * 128];
     FULL_COLOR_MAP = new int[128 * 128 * 128];
     final List<Integer> colors = getPaletteColors();
     PALETTE = new int[colors.size()];
     updateIndices(colors);
-    createLookupTable(forkRed());
   }
 
   private static void createLookupTable(@NotNull final List<LoadRed> tasks) {
     for (int i = 0; i < 128; i++) {
       final byte[] sub = tasks.get(i).join();
-      final int ci = i << 14;
-      for (int si = 0; si < 16384; si++) {
-        COLOR_MAP[ci + si] = sub[si];
-        FULL_COLOR_MAP[ci + si] = PALETTE[Byte.toUnsignedInt(sub[si])];
-      }
+      System.arraycopy(sub, 0, COLOR_MAP, i << 14, 16384);
+    }
+  }
+
+  private static void createFullLookupTable() {
+    for (int i = 0; i < COLOR_MAP.length; i++) {
+      FULL_COLOR_MAP[i] = PALETTE[Byte.toUnsignedInt(COLOR_MAP[i])];
     }
   }
 
@@ -102,6 +106,33 @@ public final class DitherLookupUtil {
     return FULL_COLOR_MAP;
   }
 
-  /** Init. */
-  public static void init() {}
+  /** Builds the lookup tables in memory, if they haven't been loaded yet. */
+  public static synchronized void init() {
+    if (!loaded) {
+      createLookupTable(forkRed());
+      createFullLookupTable();
+      loaded = true;
+    }
+  }
+
+  /**
+   * Loads the lookup tables from the cache file in the specified folder, if they haven't been
+   * loaded yet. The file is memory mapped and only used if it was created for the current palette.
+   * Otherwise, the tables are built in memory and written to the folder for the next start.
+   *
+   * @param folder the folder to store the cache file in
+   */
+  public static synchronized void init(@NotNull final Path folder) {
+    if (loaded) {
+      return;
+    }
+    final LookupTableCache cache = new LookupTableCache(folder);
+    if (cache.load(COLOR_MAP)) {
+      createFullLookupTable();
+      loaded = true;
+      return;
+    }
+    init();
+    cache.save(COLOR_MAP);
+  }
 }
@@ -0,0 +1,135 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.load;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Binary cache for the color lookup table, stored in the library folder so it
+only has to be computed once.
+
+Layout (big endian):
+  int   magic   "EMCL"
+  int   version
+  long  hash    first 64 bits of the SHA-256 of MapPalette.NMS_PALETTE
+  byte  map[]   the 128 * 128 * 128 entry color map
+
+The full color map is not stored, as it is just the palette applied to the
+color map and is cheap to derive.
+ */
+final class LookupTableCache {
+
+  private static final String FILE_NAME;
+  private static final int MAGIC;
+  private static final int VERSION;
+  private static final int HEADER_SIZE;
+
+  static {
+    FILE_NAME = "dither-lookup.bin";
+    MAGIC = 0x454D434C;
+    VERSION = 1;
+    HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+  }
+
+  private final Path file;
+  private final long hash;
+
+  LookupTableCache(@NotNull final Path folder) {
+    this.file = folder.resolve(FILE_NAME);
+    this.hash = getPaletteHash();
+  }
+
+  private static long getPaletteHash() {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    for (final Color color : MapPalette.NMS_PALETTE) {
+      hasher.putInt(color.getRGB());
+    }
+    return hasher.hash().asLong();
+  }
+
+  boolean load(final byte @NotNull [] map) {
+    if (!Files.isRegularFile(this.file)) {
+      return false;
+    }
+    try (final FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+      if (channel.size() != HEADER_SIZE + map.length) {
+        return false;
+      }
+      final MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != this.hash) {
+        return false;
+      }
+      buffer.get(map);
+      return true;
+    } catch (final IOException e) {
+      return false;
+    }
+  }
+
+  void save(final byte @NotNull [] map) {
+    try {
+      Files.createDirectories(this.file.getParent());
+      final Path temp = Files.createTempFile(this.file.getParent(), FILE_NAME, ".tmp");
+      try {
+        this.write(temp, map);
+        Files.move(
+            temp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temp);
+      }
+    } catch (final IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private void write(@NotNull final Path temp, final byte @NotNull [] map) throws IOException {
+    try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+      final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(VERSION).putLong(this.hash).flip();
+      this.writeFully(channel, header);
+      this.writeFully(channel, ByteBuffer.wrap(map));
+    }
+  }
+
+  private void writeFully(@NotNull final FileChannel channel, @NotNull final ByteBuffer buffer)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
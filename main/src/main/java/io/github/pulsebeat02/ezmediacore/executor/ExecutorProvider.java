@@ -27,6 +27,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import org.jetbrains.annotations.NotNull;
 
 public final class ExecutorProvider {
 
@@ -34,13 +36,34 @@ public final class ExecutorProvider {
   public static final ExecutorService SHARED_RESULT_POOL;
   public static final ExecutorService LOGGER_POOL;
   public static final ExecutorService ENCODER_HANDLER;
+  public static final ExecutorService FRAME_WORKER_POOL;
 
   static {
     SCHEDULED_EXECUTOR_SERVICE = Executors.newScheduledThreadPool(1);
     SHARED_RESULT_POOL = new ForkJoinPool();
     LOGGER_POOL = Executors.newCachedThreadPool();
     ENCODER_HANDLER = Executors.newCachedThreadPool();
+    FRAME_WORKER_POOL =
+        Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+            createDaemonFactory("EzMediaCore Frame Worker"));
   }
 
   private ExecutorProvider() {}
+
+  /*
+
+  The frame workers are shared by every core and live as long as the
+  class does, so they must not keep the server from stopping.
+
+   */
+  private static @NotNull ThreadFactory createDaemonFactory(@NotNull final String name) {
+    final ThreadFactory factory = Executors.defaultThreadFactory();
+    return runnable -> {
+      final Thread thread = factory.newThread(runnable);
+      thread.setName(name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
 }
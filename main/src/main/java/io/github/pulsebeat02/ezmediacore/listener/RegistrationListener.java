@@ -28,8 +28,10 @@ import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
@@ -64,6 +66,31 @@ public record RegistrationListener(
     this.core.getHandler().uninjectPlayer(p);
   }
 
+  /*
+
+  A client forgets every entity when it respawns or changes worlds, so the
+  virtual entities are sent again once the player is in their new world. The
+  respawn event is called before the player is moved, hence the task.
+
+   */
+  @EventHandler
+  public void onPlayerRespawn(@NotNull final PlayerRespawnEvent event) {
+    this.resendVirtualEntities(event.getPlayer());
+  }
+
+  @EventHandler
+  public void onPlayerChangedWorld(@NotNull final PlayerChangedWorldEvent event) {
+    this.resendVirtualEntities(event.getPlayer());
+  }
+
+  private void resendVirtualEntities(@NotNull final Player player) {
+    final Plugin plugin = this.core.getPlugin();
+    plugin
+        .getServer()
+        .getScheduler()
+        .runTask(plugin, () -> this.core.getHandler().resendVirtualEntities(player));
+  }
+
   @Override
   public @NotNull MediaLibraryCore getCore() {
     return this.core;
@@ -23,17 +23,100 @@
  */
 package io.github.pulsebeat02.ezmediacore.natives;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
 import org.jetbrains.annotations.NotNull;
 
 public final class NativeDitherBuffer {
 
+  private static final String LIBRARY_NAME;
+  private static final String LIBRARY_RESOURCE;
+  private static final boolean SUPPORTED;
+
   static {
-    System.loadLibrary("filterlite-dither");
+    LIBRARY_NAME = "filterlite-dither";
+    LIBRARY_RESOURCE = "/natives/linux-x86_64/libfilterlite-dither.so";
+    SUPPORTED = loadLibrary();
+  }
+
+  private NativeDitherBuffer() {}
+
+  private static boolean loadLibrary() {
+    try {
+      System.loadLibrary(LIBRARY_NAME);
+      return true;
+    } catch (final UnsatisfiedLinkError e) {
+      return isLinuxAmd64() && loadBundledLibrary();
+    }
+  }
+
+  private static boolean isLinuxAmd64() {
+    final String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+    final String arch = System.getProperty("os.arch").toLowerCase(Locale.ROOT);
+    return os.contains("linux") && (arch.equals("amd64") || arch.equals("x86_64"));
+  }
+
+  private static boolean loadBundledLibrary() {
+    try (final InputStream stream = NativeDitherBuffer.class.getResourceAsStream(LIBRARY_RESOURCE)) {
+      if (stream == null) {
+        return false;
+      }
+      final Path library = Files.createTempFile(LIBRARY_NAME, ".so");
+      library.toFile().deleteOnExit();
+      Files.copy(stream, library, StandardCopyOption.REPLACE_EXISTING);
+      System.load(library.toAbsolutePath().toString());
+      return true;
+    } catch (final IOException | UnsatisfiedLinkError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns whether the native library could be loaded on this platform.
+   *
+   * @return whether native dithering is available
+   */
+  public static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  /**
+   * Copies the lookup tables into native memory. Must be called once after the tables are loaded
+   * and before {@link #dither(ByteBuffer, int[], int)}.
+   *
+   * @param colorMap the color map
+   * @param fullColorMap the full color map
+   */
+  public static void setupTables(
+      final byte @NotNull [] colorMap, final int @NotNull [] fullColorMap) {
+    setup(colorMap, fullColorMap);
+  }
+
+  /**
+   * Performs Filter Lite Dithering natively, writing the palette index of every pixel into the
+   * direct buffer.
+   *
+   * @param buffer the direct output buffer
+   * @param data the rgb pixels
+   * @param width the width of the frame
+   */
+  public static void dither(
+      @NotNull final ByteBuffer buffer, final int @NotNull [] data, final int width) {
+    checkArgument(buffer.isDirect(), "Buffer must be direct!");
+    checkArgument(buffer.capacity() >= data.length, "Buffer is too small for frame!");
+    ditherNative(buffer, data, width);
   }
 
-  private native void setup(final int @NotNull [] colorMap, final int @NotNull [] fullColorMap);
+  private static native void setup(
+      final byte @NotNull [] colorMap, final int @NotNull [] fullColorMap);
 
-  private native void dither_native(
+  private static native void ditherNative(
       @NotNull final ByteBuffer buffer, final int @NotNull [] data, final int width);
 }
@@ -34,6 +34,7 @@ import io.github.pulsebeat02.ezmediacore.player.buffered.FFmpegMediaPlayer;
 import io.github.pulsebeat02.ezmediacore.player.buffered.JCodecMediaPlayer;
 import io.github.pulsebeat02.ezmediacore.player.buffered.JCodecMediaPlayer.Builder;
 import io.github.pulsebeat02.ezmediacore.player.external.VLCMediaPlayer;
+import io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderedMediaPlayer;
 import io.github.pulsebeat02.ezmediacore.throwable.UnsupportedPlatformException;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -55,6 +56,11 @@ public class VideoBuilder {
     return new FFmpegMediaPlayer.Builder();
   }
 
+  @Contract(value = " -> new", pure = true)
+  public static @NotNull PrerenderedMediaPlayer.Builder prerendered() {
+    return new PrerenderedMediaPlayer.Builder();
+  }
+
   @Contract(value = " -> new", pure = true)
   @SuppressWarnings("deprecated")
   @Deprecated
@@ -0,0 +1,116 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+A reusable slot of the frame ring. A frame holds either RGB pixels, which
+still have to go through the callback, or map colors which were already
+dithered (by FFmpeg's paletteuse filter, or by a StagedCallback on the
+frame worker pool) and only have to be sent. The backing arrays are kept
+between frames and only reallocated if the frame size changes.
+
+A frame is ready once it can be presented. Frames waiting for a worker
+are busy, and the decoder may not reuse their slot until the worker is
+done. Both flags are guarded by the lock of the ring.
+ */
+final class BufferedFrame {
+
+  private int[] pixels;
+  private ByteBufCarrier colors;
+  private boolean dithered;
+  private boolean ready;
+  private boolean busy;
+  private long timestamp;
+  private Runnable preparation;
+
+  BufferedFrame() {}
+
+  int @NotNull [] getPixels(final int length) {
+    if (this.pixels == null || this.pixels.length != length) {
+      this.pixels = new int[length];
+    }
+    this.dithered = false;
+    return this.pixels;
+  }
+
+  @NotNull
+  ByteBufCarrier getColors(final int length) {
+    if (this.colors == null || this.colors.getCapacity() != length) {
+      this.colors = ByteBufCarrier.ofByteBufCarrier(length);
+    }
+    this.dithered = true;
+    return this.colors;
+  }
+
+  int @NotNull [] getPixels() {
+    return this.pixels;
+  }
+
+  @NotNull
+  ByteBufCarrier getColors() {
+    return this.colors;
+  }
+
+  boolean isDithered() {
+    return this.dithered;
+  }
+
+  boolean isReady() {
+    return this.ready;
+  }
+
+  void setReady(final boolean ready) {
+    this.ready = ready;
+  }
+
+  boolean isBusy() {
+    return this.busy;
+  }
+
+  void setBusy(final boolean busy) {
+    this.busy = busy;
+  }
+
+  @Nullable
+  Runnable getPreparation() {
+    return this.preparation;
+  }
+
+  void setPreparation(@NotNull final Runnable preparation) {
+    this.preparation = preparation;
+  }
+
+  long getTimestamp() {
+    return this.timestamp;
+  }
+
+  void setTimestamp(final long timestamp) {
+    this.timestamp = timestamp;
+  }
+}
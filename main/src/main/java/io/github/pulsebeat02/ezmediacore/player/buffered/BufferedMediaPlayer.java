@@ -1,33 +1,30 @@
 package io.github.pulsebeat02.ezmediacore.player.buffered;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.callback.StagedCallback;
 import io.github.pulsebeat02.ezmediacore.callback.Viewers;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
 import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
 import io.github.pulsebeat02.ezmediacore.player.MediaPlayer;
+import io.github.pulsebeat02.ezmediacore.player.MrlConfiguration;
 import io.github.pulsebeat02.ezmediacore.player.SoundKey;
-import io.github.pulsebeat02.ezmediacore.utility.misc.Try;
-import io.github.pulsebeat02.ezmediacore.utility.tuple.Pair;
-import java.time.Instant;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public abstract class BufferedMediaPlayer extends MediaPlayer implements BufferedPlayer {
 
-  private final ArrayBlockingQueue<Pair<int[], Long>> frames;
+  private final FrameRing frames;
+  private final FrameScheduler scheduler;
   private final BufferConfiguration buffer;
-  private final AtomicBoolean status;
-  private final Runnable frameDisplayer;
-  private final Runnable frameWatchdog;
 
+  private BufferedFrame claimed;
   private long start;
-  private CompletableFuture<Void> display;
-  private CompletableFuture<Void> watchdog;
 
   BufferedMediaPlayer(
       @NotNull final Callback callback,
@@ -38,10 +35,8 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
       @Nullable final SoundKey key) {
     super(callback, viewers, pixelDimension, fps, key);
     this.buffer = buffer;
-    this.status = new AtomicBoolean(false);
-    this.frames = new ArrayBlockingQueue<>(this.calculateCapacity());
-    this.frameDisplayer = this.getDisplayRunnable();
-    this.frameWatchdog = this.getSkipRunnable();
+    this.frames = new FrameRing(this.calculateCapacity());
+    this.scheduler = new FrameScheduler(this.frames, fps.getFps());
   }
 
   private int calculateCapacity() {
@@ -60,17 +55,114 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
 
   @Override
   public boolean addFrame(final int @NotNull [] data, final long timestamp) {
-    while (this.frames.remainingCapacity() <= 1) {
-      Try.sleep(TimeUnit.MILLISECONDS, 5);
+    final int[] frame = this.claimFrame(data.length);
+    if (frame == null) {
+      return false;
+    }
+    System.arraycopy(data, 0, frame, 0, data.length);
+    return this.publishFrame(timestamp);
+  }
+
+  int @Nullable [] claimFrame(final int length) {
+    final BufferedFrame frame = this.claim();
+    return frame == null ? null : frame.getPixels(length);
+  }
+
+  @Nullable
+  ByteBufCarrier claimDitheredFrame(final int length) {
+    final BufferedFrame frame = this.claim();
+    return frame == null ? null : frame.getColors(length);
+  }
+
+  private @Nullable BufferedFrame claim() {
+    try {
+      final BufferedFrame frame = this.frames.claim();
+      this.claimed = frame;
+      return frame;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  boolean publishFrame(final long timestamp) {
+    final BufferedFrame frame = this.claimed;
+    final boolean staged =
+        frame != null && !frame.isDithered() && this.getCallback() instanceof StagedCallback;
+    final BufferedFrame published = this.frames.publish(timestamp, !staged);
+    if (published == null) {
+      return false;
+    }
+    if (staged) {
+      ExecutorProvider.FRAME_WORKER_POOL.execute(this.getPreparation(published));
+    }
+    return true;
+  }
+
+  private @NotNull Runnable getPreparation(@NotNull final BufferedFrame frame) {
+    Runnable preparation = frame.getPreparation();
+    if (preparation == null) {
+      preparation = () -> this.prepareFrame(frame);
+      frame.setPreparation(preparation);
+    }
+    return preparation;
+  }
+
+  private void prepareFrame(@NotNull final BufferedFrame frame) {
+    try {
+      final Callback callback = this.getCallback();
+      if (callback instanceof StagedCallback) {
+        final int[] pixels = frame.getPixels();
+        ((StagedCallback) callback)
+            .prepare(pixels, frame.getColors(pixels.length).getNioBuffer());
+      }
+    } finally {
+      this.frames.complete(frame);
     }
-    return this.frames.add(Pair.ofPair(data, timestamp));
   }
 
   @Override
   public void bufferFrames() {
-    final int target = (this.buffer.getBuffer() * this.getFrameConfiguration().getFps()) >> 1;
-    // noinspection StatementWithEmptyBody
-    while (this.frames.size() >= target) {}
+    try {
+      this.frames.awaitBuffered(
+          this.frames.getCapacity() >> 1, this.buffer.getBuffer(), TimeUnit.SECONDS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void start(@NotNull final MrlConfiguration mrl, @NotNull final Object... arguments) {
+    super.start(mrl, arguments);
+    this.scheduler.reset();
+    this.frames.open();
+  }
+
+  /*
+
+  Pausing only stops presenting frames. The ring keeps the frames which
+  were already buffered, and once it is full the decoder blocks on it
+  until the player resumes. Players which stop decoding when paused close
+  the ring themselves through forceStop.
+
+   */
+  @Override
+  public void pause() {
+    super.pause();
+    this.scheduler.stop();
+  }
+
+  @Override
+  public void resume(@NotNull final MrlConfiguration mrl, @NotNull final Object... arguments) {
+    super.resume(mrl, arguments);
+    this.frames.open();
+  }
+
+  @Override
+  public void release() {
+    super.release();
+    this.scheduler.stop();
+    this.frames.close();
   }
 
   @Override
@@ -82,54 +174,34 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
 
   @Override
   public void startDisplayRunnable() {
-    this.cancelFuture(this.display);
-    this.display = CompletableFuture.runAsync(this.frameDisplayer);
+    this.scheduler.start(this.getCallback(), Math.max(0, this.getElapsedMilliseconds()));
+  }
+
+  @Override
+  public @NotNull FrameStatistics getFrameStatistics() {
+    return this.scheduler.getStatistics();
   }
 
   @Override
-  public void startWatchdogRunnable() {
-    this.cancelFuture(this.watchdog);
-    this.watchdog = CompletableFuture.runAsync(this.frameWatchdog);
+  public @NotNull LateFramePolicy getLateFramePolicy() {
+    return this.scheduler.getPolicy();
+  }
+
+  @Override
+  public void setLateFramePolicy(@NotNull final LateFramePolicy policy) {
+    checkNotNull(policy, "Late frame policy cannot be null!");
+    this.scheduler.setPolicy(policy);
   }
 
   @Override
   public void forceStop() {
-    this.status.set(false);
+    this.scheduler.stop();
+    this.frames.close();
   }
 
-  @Contract(pure = true)
-  private @NotNull Runnable getDisplayRunnable() {
-    return () -> {
-      final Callback callback = this.getCallback();
-      while (this.status.get()) {
-        try {
-          // process current frame
-          callback.process(this.frames.take().getKey());
-        } catch (final InterruptedException ignored) {
-        }
-      }
-    };
-  }
-
-  @Contract(pure = true)
-  private @NotNull Runnable getSkipRunnable() {
-    return () -> {
-      while (this.status.get()) {
-        // skip frames if necessary
-        // For example, if the passed time is 40 ms, and the time of the
-        // current frame is 30 ms, we have to skip. If it is equal, we are
-        // bound to get behind, so skip
-        try {
-          final long passed = Instant.now().toEpochMilli() - this.start;
-          Pair<int[], Long> skip = this.frames.take();
-          while (skip.getValue() <= passed) {
-            this.frames.take();
-            skip = this.frames.take();
-          }
-        } catch (final InterruptedException ignored) {
-        }
-      }
-    };
+  void discardFrames() {
+    this.forceStop();
+    this.frames.open();
   }
 
   @Override
@@ -149,6 +221,6 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
 
   @Override
   public boolean isExecuting() {
-    return this.status.get();
+    return this.scheduler.isRunning();
   }
 }
@@ -6,17 +6,21 @@ import com.github.kokorin.jaffree.ffmpeg.Stream;
 import io.github.pulsebeat02.ezmediacore.throwable.IllegalStreamHeaderException;
 import io.github.pulsebeat02.ezmediacore.utility.graphics.VideoFrameUtils;
 import java.awt.image.BufferedImage;
-import java.time.Instant;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
 
 public final class FFmpegFrameConsumer implements FrameConsumer {
 
   private final FFmpegMediaPlayer player;
+  private final int session;
+  private final long offset;
   private float[] calculations;
 
-  FFmpegFrameConsumer(@NotNull final FFmpegMediaPlayer player) {
+  FFmpegFrameConsumer(
+      @NotNull final FFmpegMediaPlayer player, final int session, final long offset) {
     this.player = player;
+    this.session = session;
+    this.offset = offset;
   }
 
   @Override
@@ -36,11 +40,8 @@ public final class FFmpegFrameConsumer implements FrameConsumer {
       this.calculations[stream.getId()] = (1.0F / stream.getTimebase()) * 1000;
     }
 
-    // set start time
-    this.player.setStart(Instant.now().toEpochMilli());
-
-    // play audio
-    this.player.playAudio();
+    // set start time and play audio
+    this.player.startStream(this.session, this.offset);
   }
 
   @Override
@@ -57,11 +58,21 @@ public final class FFmpegFrameConsumer implements FrameConsumer {
       return;
     }
 
-    // add to queue
-    this.player.addFrame(VideoFrameUtils.getRGBParallel(image), this.calculateTimeStamp(frame));
+    // drop frames of a process which was replaced by a seek
+    if (!this.player.isCurrentStream(this.session)) {
+      return;
+    }
+
+    // copy straight into the next free slot of the frame ring
+    final int[] slot = this.player.claimFrame(image.getWidth() * image.getHeight());
+    if (slot == null) {
+      return;
+    }
+    VideoFrameUtils.getRGBParallel(image, slot);
+    this.player.publishFrame(this.calculateTimeStamp(frame));
   }
 
   private long calculateTimeStamp(@NotNull final Frame frame) {
-    return (long) (frame.getPts() * this.calculations[frame.getStreamId()]);
+    return this.offset + (long) (frame.getPts() * this.calculations[frame.getStreamId()]);
   }
 }
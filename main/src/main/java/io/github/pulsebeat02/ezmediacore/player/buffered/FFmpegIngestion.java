@@ -0,0 +1,47 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+/*
+
+How an FFmpegMediaPlayer receives decoded frames from the FFmpeg process.
+
+FRAME_CONSUMER decodes the NUT stream written by FFmpeg into a BufferedImage
+per frame (through Jaffree's FrameOutput) and copies its pixels with
+BufferedImage#getRGB.
+
+RAW_VIDEO lets FFmpeg write packed bgra rawvideo at a constant frame rate to
+a pipe. The bytes are collected in a reused direct buffer and bulk copied
+into the frame ring through an IntBuffer view, without touching AWT.
+
+PALETTE quantizes every frame to the map palette inside FFmpeg with the
+paletteuse filter and reads the pal8 output, one map color per pixel, into
+the frame ring. The frames skip the DitherAlgorithm of the callback, so it
+must be a map callback.
+ */
+public enum FFmpegIngestion {
+  FRAME_CONSUMER,
+  RAW_VIDEO,
+  PALETTE
+}
@@ -23,17 +23,20 @@
  */
 package io.github.pulsebeat02.ezmediacore.player.buffered;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import com.github.kokorin.jaffree.LogLevel;
 import com.github.kokorin.jaffree.StreamType;
 import com.github.kokorin.jaffree.ffmpeg.FFmpeg;
 import com.github.kokorin.jaffree.ffmpeg.FFmpegResultFuture;
-import com.github.kokorin.jaffree.ffmpeg.FrameConsumer;
 import com.github.kokorin.jaffree.ffmpeg.FrameOutput;
+import com.github.kokorin.jaffree.ffmpeg.PipeOutput;
 import com.github.kokorin.jaffree.ffmpeg.UrlInput;
 import io.github.pulsebeat02.ezmediacore.callback.Callback;
 import io.github.pulsebeat02.ezmediacore.callback.DelayConfiguration;
 import io.github.pulsebeat02.ezmediacore.callback.Identifier;
 import io.github.pulsebeat02.ezmediacore.callback.Viewers;
+import io.github.pulsebeat02.ezmediacore.callback.implementation.MapCallbackDispatcher;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
 import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
 import io.github.pulsebeat02.ezmediacore.locale.Locale;
@@ -46,6 +49,7 @@ import io.github.pulsebeat02.ezmediacore.utility.media.RequestUtils;
 import io.github.pulsebeat02.ezmediacore.utility.unsafe.UnsafeUtils;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -53,8 +57,8 @@ import org.jetbrains.annotations.Nullable;
 /*
 
 Algorithm for frame consuming into a player. We can retrieve the frames,
-and put them into a ArrayBlockingQueue. We store the ArrayBlockingQueue
-with both int[] as the frame data, and also a double for the timestamp.
+and copy them into a preallocated ring of frame slots (FrameRing). Each
+slot stores the int[] frame data together with a long for the timestamp.
 Next, we keep track of an internal time.
 
 Timestamp for each frame is calculated with the following equation.
@@ -67,6 +71,10 @@ We can calculate this asynchronously when we fetch the frame as it
 can be slow doing the decimal division. We put these into our data
 structure to store the next frames.
 
+In RAW_VIDEO and PALETTE ingestion, FFmpeg outputs rawvideo at a
+constant frame rate which carries no timestamps, so T(f) = f.index / fps
+instead.
+
 For our display thread, we can continuously fetch from our frame
 data structure. We have to account for some cases which may lead
 to the downfall of the program.
@@ -74,21 +82,33 @@ to the downfall of the program.
 What if the data structure is empty?
 In this rare case where FFmpeg isn't fast enough to deliver frames
 compared to display frames, we are lucky our data structure is
-blocking, so we just block the thread until we are able to get the
-next frame.
+blocking, so we just park the thread until we are able to get the
+next frame. The same goes for the decoder when the ring is full.
 
 What if we are behind in frames?
-This is a bit harder, as it requires likely a faster algorithm. One
-way to do this is by looping over the next frames while keeping track
-of the current time (Instant.now()) and trying to display the frame
-after the frame that matched up our time. Obviously, this may be a
-bit slow, and that overtime for the loop also takes some time to
-process too, so we must account for that as well.
+A single scheduler thread (FrameScheduler) owns the display side. It
+compares each frame timestamp against a monotonic clock, parks until
+frames which are early become due, and lets the LateFramePolicy decide
+whether a late frame is still shown or dropped in favour of the newer
+frames that are already due.
+
+What happens when the player is paused?
+The FFmpeg process keeps running. Only the scheduler stops, so the ring
+fills up and the frame output blocks on it, which stops draining the
+pipe until FFmpeg itself blocks on its writes. Resuming restarts the
+scheduler from the paused position and is instant. A new process is only
+started to seek, or if the old one exited while the player was paused.
  */
 public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
 
+  private final FFmpegIngestion ingestion;
+  private final FFmpegPaletteDither dither;
   private volatile FFmpeg ffmpeg;
   private volatile FFmpegResultFuture future;
+  private volatile int session;
+  private long offset;
+  private Object[] arguments;
+  private long position;
 
   FFmpegMediaPlayer(
       @NotNull final Callback callback,
@@ -96,8 +116,15 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
       @NotNull final Dimension pixelDimension,
       @NotNull final BufferConfiguration buffer,
       @NotNull final FrameConfiguration fps,
-      @Nullable final SoundKey key) {
+      @Nullable final SoundKey key,
+      @NotNull final FFmpegIngestion ingestion,
+      @NotNull final FFmpegPaletteDither dither) {
     super(callback, viewers, pixelDimension, buffer, fps, key);
+    checkArgument(
+        ingestion != FFmpegIngestion.PALETTE || callback instanceof MapCallbackDispatcher,
+        "Palette ingestion requires a map callback!");
+    this.ingestion = ingestion;
+    this.dither = dither;
   }
 
   @Override
@@ -107,8 +134,8 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
       @NotNull final Object @NotNull ... arguments) {
     this.setDirectVideoMrl(RequestUtils.getVideoURLs(mrl).get(0));
     this.setDirectAudioMrl(RequestUtils.getAudioURLs(mrl).get(0));
-    this.constructFFmpegProcess(delay);
-    this.addExtraArguments(arguments);
+    this.arguments = arguments;
+    this.constructFFmpegProcess(delay.getDelay() * 1000);
   }
 
   private void addExtraArguments(@NotNull final Object @NotNull ... arguments) {
@@ -117,15 +144,17 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
     }
   }
 
-  private void constructFFmpegProcess(@NotNull final DelayConfiguration delay) {
+  private void constructFFmpegProcess(final long ms) {
     final String url = this.getDirectVideoMrl().getMrl();
     final Path path = Path.of(url);
-    final long ms = delay.getDelay() * 1000;
+    this.offset = ms;
     this.ffmpeg = new FFmpeg(this.getCore().getFFmpegPath().toAbsolutePath());
     this.addInput(path, url, ms);
+    this.addPaletteInput();
     this.addOutput();
     this.addDimensionArguments();
     this.addMiscArguments();
+    this.addExtraArguments(this.arguments);
     this.getCore()
         .getLogger()
         .info(
@@ -142,19 +171,81 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
 
   private void addDimensionArguments() {
     final Dimension dimension = this.getDimensions();
-    this.ffmpeg.addArguments(
-        "-vf", "scale=%s:%s".formatted(dimension.getWidth(), dimension.getHeight()));
+    final String scale = "scale=%s:%s".formatted(dimension.getWidth(), dimension.getHeight());
+    if (this.ingestion == FFmpegIngestion.PALETTE) {
+      this.ffmpeg.addArguments(
+          "-filter_complex",
+          "[0:v]%s[scaled];[scaled][1:v]paletteuse=dither=%s"
+              .formatted(scale, this.dither.getFilterName()));
+      return;
+    }
+    this.ffmpeg.addArguments("-vf", scale);
+  }
+
+  private void addPaletteInput() {
+    if (this.ingestion == FFmpegIngestion.PALETTE) {
+      this.ffmpeg.addInput(
+          UrlInput.fromPath(FFmpegPalette.getPaletteImage(this.getCore().getLibraryPath())));
+    }
   }
 
   private void addOutput() {
+    switch (this.ingestion) {
+      case RAW_VIDEO -> this.addRawOutput();
+      case PALETTE -> this.addPaletteOutput();
+      default -> this.addFrameOutput();
+    }
+  }
+
+  private void addFrameOutput() {
     this.ffmpeg.addOutput(
-        FrameOutput.withConsumer(this.getFrameConsumer())
+        FrameOutput.withConsumer(new FFmpegFrameConsumer(this, this.session, this.offset))
             .setFrameRate(this.getFrameConfiguration().getFps())
             .disableStream(StreamType.AUDIO)
             .disableStream(StreamType.SUBTITLE)
             .disableStream(StreamType.DATA));
   }
 
+  private void addRawOutput() {
+    final Dimension dimension = this.getDimensions();
+    final int fps = this.getFrameConfiguration().getFps();
+    this.ffmpeg.addOutput(
+        PipeOutput.pumpTo(
+                new RawFrameOutputStream(
+                    this,
+                    this.session,
+                    this.offset,
+                    dimension.getWidth(),
+                    dimension.getHeight(),
+                    fps))
+            .setFormat("rawvideo")
+            .setFrameRate(fps)
+            .addArguments("-pix_fmt", "bgra")
+            .disableStream(StreamType.AUDIO)
+            .disableStream(StreamType.SUBTITLE)
+            .disableStream(StreamType.DATA));
+  }
+
+  private void addPaletteOutput() {
+    final Dimension dimension = this.getDimensions();
+    final int fps = this.getFrameConfiguration().getFps();
+    this.ffmpeg.addOutput(
+        PipeOutput.pumpTo(
+                new PaletteFrameOutputStream(
+                    this,
+                    this.session,
+                    this.offset,
+                    dimension.getWidth(),
+                    dimension.getHeight(),
+                    fps))
+            .setFormat("rawvideo")
+            .setFrameRate(fps)
+            .addArguments("-pix_fmt", "pal8")
+            .disableStream(StreamType.AUDIO)
+            .disableStream(StreamType.SUBTITLE)
+            .disableStream(StreamType.DATA));
+  }
+
   private void addInput(@NotNull final Path path, @NotNull final String url, final long ms) {
     this.ffmpeg.addInput(
         (Files.exists(path)
@@ -163,28 +254,44 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
             .addArgument("-re"));
   }
 
-  @Contract(value = " -> new", pure = true)
-  private @NotNull FrameConsumer getFrameConsumer() {
-    return new FFmpegFrameConsumer(this);
+  /**
+   * Called by the frame output once the first frame of a process arrives. Frame timestamps are
+   * relative to the position the process started at, so the start time is moved back by that
+   * position.
+   *
+   * @param session the session the output was created for
+   * @param offset the position the process started at, in milliseconds
+   */
+  void startStream(final int session, final long offset) {
+    if (this.isCurrentStream(session)) {
+      this.setStart(Instant.now().toEpochMilli() - offset);
+      this.playAudio();
+    }
+  }
+
+  /*
+
+  A process which was replaced by a seek may still write a few frames
+  before it reads the quit command. Outputs check their session before
+  claiming a frame and drop anything left over from an older process, but
+  keep reading the pipe so that the old process can exit.
+
+   */
+  boolean isCurrentStream(final int session) {
+    return this.session == session;
   }
 
   @Override
   public void release() {
     super.release();
-    if (this.ffmpeg != null && this.future != null) {
-      this.future.graceStop();
-      this.future = null;
-    }
+    this.stopProcess();
   }
 
   @Override
   public void pause() {
     super.pause();
-    if (this.future != null) {
-      this.future.graceStop();
-    }
     this.stopAudio();
-    this.setStart(System.currentTimeMillis());
+    this.position = Math.max(0, this.getElapsedMilliseconds());
   }
 
   @Override
@@ -192,16 +299,40 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
     super.start(mrl, arguments);
     if (this.ffmpeg == null) {
       this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
+      this.setupPlayer();
+    } else {
+      this.seek(0);
     }
-    this.setupPlayer();
   }
 
   @Override
   public void resume(@NotNull final MrlConfiguration mrl, @NotNull final Object... arguments) {
     super.resume(mrl, arguments);
     if (this.ffmpeg == null) {
-      this.initializePlayer(mrl, DelayConfiguration.ofDelay(this.getStart()), arguments);
+      this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
+      this.setupPlayer();
+    } else if (this.isProcessAlive()) {
+      this.setStart(Instant.now().toEpochMilli() - this.position);
+      this.playAudio();
+      this.startDisplayRunnable();
+    } else {
+      this.seek(this.position);
     }
+  }
+
+  /**
+   * Moves playback to another position. This is the only case which restarts FFmpeg, as the
+   * frames which were already decoded are discarded and the input has to be opened again.
+   *
+   * @param ms the position to play from, in milliseconds
+   */
+  public void seek(final long ms) {
+    checkArgument(ms >= 0, "Position must be greater than or equal to 0!");
+    checkArgument(this.ffmpeg != null, "Player must be started before seeking!");
+    this.session++;
+    this.discardFrames();
+    this.stopProcess();
+    this.constructFFmpegProcess(ms);
     this.setupPlayer();
   }
 
@@ -210,22 +341,46 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
     this.updateFFmpegPlayer();
     this.bufferFrames();
     this.startDisplayRunnable();
-    this.startWatchdogRunnable();
   }
 
   private void updateFFmpegPlayer() {
-    this.cancelFuture(this.future.toCompletableFuture());
+    this.stopProcess();
     this.future = this.ffmpeg.executeAsync(ExecutorProvider.ENCODER_HANDLER);
   }
 
+  private void stopProcess() {
+    final FFmpegResultFuture future = this.future;
+    if (future != null) {
+      this.future = null;
+      if (!future.toCompletableFuture().isDone()) {
+        future.graceStop();
+      }
+    }
+  }
+
+  private boolean isProcessAlive() {
+    final FFmpegResultFuture future = this.future;
+    return future != null && !future.toCompletableFuture().isDone();
+  }
+
   @Override
   public @NotNull Identifier<String> getPlayerType() {
     return MediaPlayer.FFMPEG;
   }
 
+  public @NotNull FFmpegIngestion getIngestion() {
+    return this.ingestion;
+  }
+
+  public @NotNull FFmpegPaletteDither getPaletteDither() {
+    return this.dither;
+  }
+
   public static final class Builder extends VideoBuilder {
 
     private BufferConfiguration bufferSize = BufferConfiguration.BUFFER_15;
+    private FFmpegIngestion ingestion = FFmpegIngestion.RAW_VIDEO;
+    private FFmpegPaletteDither dither = FFmpegPaletteDither.SIERRA_2_4A;
 
     public Builder() {}
 
@@ -263,6 +418,18 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
       return this;
     }
 
+    @Contract("_ -> this")
+    public @NotNull Builder ingestion(@NotNull final FFmpegIngestion ingestion) {
+      this.ingestion = ingestion;
+      return this;
+    }
+
+    @Contract("_ -> this")
+    public @NotNull Builder paletteDither(@NotNull final FFmpegPaletteDither dither) {
+      this.dither = dither;
+      return this;
+    }
+
     @Contract(" -> new")
     @Override
     public @NotNull MediaPlayer build() {
@@ -274,7 +441,9 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
           this.getDims(),
           this.bufferSize,
           this.getRate(),
-          this.getKey());
+          this.getKey(),
+          this.ingestion,
+          this.dither);
     }
   }
 }
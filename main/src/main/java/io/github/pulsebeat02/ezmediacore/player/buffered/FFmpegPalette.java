@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import javax.imageio.ImageIO;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Palette image for FFmpeg's paletteuse filter.
+
+paletteuse takes a 16x16 image and outputs, for every pixel, the index of
+the palette entry it picked. Entry i of the image is map color i, so the
+pal8 output can be sent to the client as is. The first four map colors
+are transparent and the palette only has 144 entries, so every other
+entry is fully transparent, which makes paletteuse skip it when matching
+colors.
+ */
+final class FFmpegPalette {
+
+  private static final String FILE_NAME;
+  private static final int SIZE;
+
+  static {
+    FILE_NAME = "map-palette.png";
+    SIZE = 16;
+  }
+
+  private FFmpegPalette() {}
+
+  static synchronized @NotNull Path getPaletteImage(@NotNull final Path folder) {
+    final Path path = folder.resolve(FILE_NAME);
+    try {
+      Files.createDirectories(folder);
+      final Path temp = Files.createTempFile(folder, "map-palette", ".png");
+      ImageIO.write(createPaletteImage(), "png", temp.toFile());
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+    return path;
+  }
+
+  private static @NotNull BufferedImage createPaletteImage() {
+    final BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+    final Color[] palette = MapPalette.NMS_PALETTE;
+    for (int i = 4; i < palette.length; i++) {
+      image.setRGB(i % SIZE, i / SIZE, palette[i].getRGB());
+    }
+    return image;
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+Fixed ring of frame slots shared between a single decoder thread and the
+display side of a buffered player.
+
+Every slot is a BufferedFrame whose buffers are allocated the first time
+they are used (or when the frame size changes) and then reused for the
+rest of the playback, so steady-state buffering does not allocate. The
+decoder claims the slot after the last queued frame, fills it outside of
+the lock, and publishes it with its timestamp. The display thread acquires
+the oldest frame, processes it in place, and releases it afterwards. Only
+the thread which acquired the frame can release it, so a display thread
+which outlives a restart can't remove a frame the new one is showing.
+Both sides park on conditions when the ring is full or empty instead of
+sleeping or spinning.
+
+Frames which still have to be prepared by a StagedCallback are published
+as busy. The display thread waits until the frame at the front is
+complete, so workers may finish out of order while frames are still
+shown in order, and the decoder waits before reusing a busy slot.
+
+Closing the ring (when a player stops or seeks) discards the queued
+frames and wakes every waiting thread. Threads which were waiting when
+the ring closed give up, and frames claimed before the ring closed are
+never published. Pausing leaves the ring open, so the decoder simply
+blocks once it is full.
+ */
+final class FrameRing {
+
+  private final BufferedFrame[] frames;
+  private final ReentrantLock lock;
+  private final Condition readable;
+  private final Condition writable;
+  private final Condition changed;
+
+  private int head;
+  private int count;
+  private int generation;
+  private int claimed;
+  private boolean open;
+  private Thread reader;
+
+  FrameRing(final int capacity) {
+    checkArgument(capacity > 0, "Capacity must be positive!");
+    this.frames = new BufferedFrame[capacity];
+    for (int i = 0; i < capacity; i++) {
+      this.frames[i] = new BufferedFrame();
+    }
+    this.lock = new ReentrantLock();
+    this.readable = this.lock.newCondition();
+    this.writable = this.lock.newCondition();
+    this.changed = this.lock.newCondition();
+    this.open = true;
+  }
+
+  int getCapacity() {
+    return this.frames.length;
+  }
+
+  int size() {
+    this.lock.lock();
+    try {
+      return this.count;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Nullable
+  BufferedFrame claim() throws InterruptedException {
+    this.lock.lockInterruptibly();
+    try {
+      final int generation = this.generation;
+      while (this.count == this.frames.length
+          || !this.open
+          || this.frames[this.index(this.count)].isBusy()) {
+        this.writable.await();
+        if (this.generation != generation) {
+          return null;
+        }
+      }
+      this.claimed = generation;
+      return this.frames[this.index(this.count)];
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Nullable
+  BufferedFrame publish(final long timestamp, final boolean ready) {
+    this.lock.lock();
+    try {
+      if (this.claimed != this.generation || this.count == this.frames.length) {
+        return null;
+      }
+      final BufferedFrame frame = this.frames[this.index(this.count)];
+      frame.setTimestamp(timestamp);
+      frame.setReady(ready);
+      frame.setBusy(!ready);
+      this.count++;
+      this.readable.signal();
+      this.changed.signalAll();
+      return frame;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  void complete(@NotNull final BufferedFrame frame) {
+    this.lock.lock();
+    try {
+      frame.setBusy(false);
+      frame.setReady(true);
+      this.readable.signal();
+      this.writable.signal();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  @Nullable
+  BufferedFrame acquire() throws InterruptedException {
+    this.lock.lockInterruptibly();
+    try {
+      final int generation = this.generation;
+      while (this.count == 0 || !this.open || !this.frames[this.head].isReady()) {
+        this.readable.await();
+        if (this.generation != generation) {
+          return null;
+        }
+      }
+      this.reader = Thread.currentThread();
+      return this.frames[this.head];
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  void release() {
+    this.lock.lock();
+    try {
+      if (this.reader == Thread.currentThread()) {
+        this.reader = null;
+        this.remove();
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  void abort() {
+    this.lock.lock();
+    try {
+      if (this.reader == Thread.currentThread()) {
+        this.reader = null;
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  boolean isSuperseded(final long time) {
+    this.lock.lock();
+    try {
+      return this.count > 1 && this.frames[this.index(1)].getTimestamp() <= time;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  boolean awaitBuffered(final int target, final long timeout, @NotNull final TimeUnit unit)
+      throws InterruptedException {
+    this.lock.lockInterruptibly();
+    try {
+      final int goal = Math.min(target, this.frames.length);
+      long remaining = unit.toNanos(timeout);
+      while (this.count < goal && this.open) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = this.changed.awaitNanos(remaining);
+      }
+      return this.count >= goal;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  void open() {
+    this.lock.lock();
+    try {
+      this.open = true;
+      this.writable.signalAll();
+      this.readable.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  void close() {
+    this.lock.lock();
+    try {
+      this.open = false;
+      this.head = 0;
+      this.count = 0;
+      this.reader = null;
+      this.generation++;
+      this.writable.signalAll();
+      this.readable.signalAll();
+      this.changed.signalAll();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  private void remove() {
+    this.head = this.index(1);
+    this.count--;
+    this.writable.signal();
+    this.changed.signalAll();
+  }
+
+  private int index(final int offset) {
+    return (this.head + offset) % this.frames.length;
+  }
+}
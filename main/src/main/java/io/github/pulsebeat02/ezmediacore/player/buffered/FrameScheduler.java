@@ -0,0 +1,213 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.callback.StagedCallback;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Presents the frames of a FrameRing at their timestamps.
+
+The scheduler runs on its own thread and is the only reader of the ring.
+A thread keeps running only while it is the current scheduler thread, so
+a thread still parked or presenting when the scheduler is restarted exits
+instead of reading the ring alongside the new one.
+Frame timestamps are milliseconds since the start of playback, so the
+clock is anchored once, when the scheduler starts, to the time elapsed
+since the player started (which is also when the audio started). From
+then on it only uses System.nanoTime, so wall clock adjustments cannot
+make frames early or late.
+
+For every frame at the front of the ring:
+- if it is not due yet, the thread parks until it is (counted as early)
+- if it is due, it is presented right away
+- if it is more than one frame interval late, the LateFramePolicy decides
+  whether to present it anyway (counted as late) or drop it
+ */
+final class FrameScheduler implements Runnable {
+
+  private final FrameRing ring;
+  private final long tolerance;
+  private final LongAdder presented;
+  private final LongAdder early;
+  private final LongAdder late;
+  private final LongAdder dropped;
+
+  private volatile Callback callback;
+  private volatile LateFramePolicy policy;
+  private volatile boolean running;
+  private volatile Thread thread;
+  private long origin;
+
+  FrameScheduler(@NotNull final FrameRing ring, final int fps) {
+    this.ring = ring;
+    this.tolerance = TimeUnit.SECONDS.toNanos(1) / Math.max(1, fps);
+    this.presented = new LongAdder();
+    this.early = new LongAdder();
+    this.late = new LongAdder();
+    this.dropped = new LongAdder();
+    this.policy = LateFramePolicy.SKIP_TO_LATEST;
+  }
+
+  synchronized void start(@NotNull final Callback callback, final long elapsed) {
+    this.stop();
+    this.callback = callback;
+    this.origin = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(elapsed);
+    this.running = true;
+    final Thread thread = new Thread(this, "EzMediaCore Frame Scheduler");
+    thread.setDaemon(true);
+    this.thread = thread;
+    thread.start();
+  }
+
+  synchronized void stop() {
+    this.running = false;
+    final Thread thread = this.thread;
+    if (thread != null) {
+      thread.interrupt();
+      this.thread = null;
+    }
+  }
+
+  void reset() {
+    this.presented.reset();
+    this.early.reset();
+    this.late.reset();
+    this.dropped.reset();
+  }
+
+  boolean isRunning() {
+    return this.running;
+  }
+
+  @NotNull
+  LateFramePolicy getPolicy() {
+    return this.policy;
+  }
+
+  void setPolicy(@NotNull final LateFramePolicy policy) {
+    this.policy = policy;
+  }
+
+  @NotNull
+  FrameStatistics getStatistics() {
+    return FrameStatistics.ofStatistics(
+        this.presented.sum(), this.early.sum(), this.late.sum(), this.dropped.sum());
+  }
+
+  @Override
+  public void run() {
+    final Thread current = Thread.currentThread();
+    while (this.thread == current) {
+      final BufferedFrame frame;
+      try {
+        frame = this.ring.acquire();
+      } catch (final InterruptedException e) {
+        return;
+      }
+      if (frame == null) {
+        continue;
+      }
+      boolean consumed = true;
+      try {
+        consumed = this.schedule(frame);
+      } finally {
+        if (consumed) {
+          this.ring.release();
+        } else {
+          this.ring.abort();
+        }
+      }
+    }
+  }
+
+  /*
+
+  Returns false if the scheduler was stopped while waiting for the frame,
+  which leaves it at the front of the ring, so a paused player shows it
+  first once it is resumed.
+
+   */
+  private boolean schedule(@NotNull final BufferedFrame frame) {
+    final long due = this.origin + TimeUnit.MILLISECONDS.toNanos(frame.getTimestamp());
+    final long delay = due - System.nanoTime();
+    if (delay > 0) {
+      this.early.increment();
+      if (!this.parkUntil(due)) {
+        return false;
+      }
+    } else if (this.isDropped(-delay)) {
+      this.dropped.increment();
+      return true;
+    }
+    this.present(frame);
+    this.presented.increment();
+    return true;
+  }
+
+  private void present(@NotNull final BufferedFrame frame) {
+    final Callback callback = this.callback;
+    if (frame.isDithered()) {
+      ((StagedCallback) callback).processPrepared(frame.getColors());
+    } else {
+      callback.process(frame.getPixels());
+    }
+  }
+
+  private boolean isDropped(final long lateness) {
+    final LateFramePolicy policy = this.policy;
+    if (policy == LateFramePolicy.SKIP_TO_LATEST && this.ring.isSuperseded(this.getTime())) {
+      return true;
+    }
+    if (lateness <= this.tolerance) {
+      return false;
+    }
+    if (policy == LateFramePolicy.DROP) {
+      return true;
+    }
+    this.late.increment();
+    return false;
+  }
+
+  private boolean parkUntil(final long due) {
+    final Thread current = Thread.currentThread();
+    long remaining;
+    while ((remaining = due - System.nanoTime()) > 0) {
+      if (this.thread != current || Thread.interrupted()) {
+        return false;
+      }
+      LockSupport.parkNanos(this, remaining);
+    }
+    return this.thread == current;
+  }
+
+  private long getTime() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.origin);
+  }
+}
@@ -29,13 +29,9 @@ public class JCodecFrameConsumer implements Runnable {
   public void run() {
     final Dimension dimensions = this.player.getDimensions();
     try {
-      while (!this.player.isExecuting()) {
-        // sometimes jcodec returns a null frame...
-        final Picture frame = this.grabber.getNativeFrame();
-        if (frame == null) {
-          break;
-        }
-
+      // sometimes jcodec returns a null frame...
+      Picture frame;
+      while ((frame = this.grabber.getNativeFrame()) != null) {
         // parallel computation to get bufferedimage
         final Future<BufferedImage> image =
             AsyncScalr.resize(
@@ -45,9 +41,14 @@ public class JCodecFrameConsumer implements Runnable {
                 dimensions.getWidth(),
                 dimensions.getHeight());
 
-        // add to queue
-        this.player.addFrame(
-            VideoFrameUtils.getRGBParallel(image.get()), this.calculateTimestamp());
+        // copy straight into the next free slot of the frame ring
+        final BufferedImage scaled = image.get();
+        final int[] slot = this.player.claimFrame(scaled.getWidth() * scaled.getHeight());
+        if (slot == null) {
+          break;
+        }
+        VideoFrameUtils.getRGBParallel(scaled, slot);
+        this.player.publishFrame(this.calculateTimestamp());
       }
     } catch (final IOException | ExecutionException | InterruptedException e) {
       throw new AssertionError(e);
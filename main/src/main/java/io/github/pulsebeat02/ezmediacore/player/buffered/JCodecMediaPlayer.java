@@ -93,8 +93,8 @@ public final class JCodecMediaPlayer extends BufferedMediaPlayer {
     if (this.grabber == null) {
       this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
     }
-    this.play();
     this.setStart(System.currentTimeMillis());
+    this.play();
   }
 
   private void runPlayer() {
@@ -106,7 +106,6 @@ public final class JCodecMediaPlayer extends BufferedMediaPlayer {
     this.runPlayer();
     this.bufferFrames();
     this.startDisplayRunnable();
-    this.startWatchdogRunnable();
   }
 
   @Override
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Receives the pal8 rawvideo output of FFmpeg's paletteuse filter from
+Jaffree's pipe pump.
+
+Every frame is one map color per pixel, followed by the 256 entry (1024
+byte) palette which rawvideo appends to paletted frames. The colors are
+written straight into the carrier of the next slot of the frame ring and
+the palette is skipped, as it is the same for every frame.
+
+The output runs at a constant frame rate, so the timestamp of a frame is
+its index divided by the frame rate, after the position the process
+started at.
+ */
+final class PaletteFrameOutputStream extends OutputStream {
+
+  private static final int PALETTE_LENGTH;
+
+  static {
+    PALETTE_LENGTH = 256 << 2;
+  }
+
+  private final FFmpegMediaPlayer player;
+  private final int session;
+  private final long offset;
+  private final int length;
+  private final int fps;
+
+  private ByteBuffer frame;
+  private int position;
+  private long index;
+  private boolean started;
+
+  PaletteFrameOutputStream(
+      @NotNull final FFmpegMediaPlayer player,
+      final int session,
+      final long offset,
+      final int width,
+      final int height,
+      final int fps) {
+    this.player = player;
+    this.session = session;
+    this.offset = offset;
+    this.length = width * height;
+    this.fps = fps;
+  }
+
+  @Override
+  public void write(final int b) {
+    this.write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(final byte @NotNull [] b, final int off, final int len) {
+    this.start();
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      final int count;
+      if (this.position < this.length) {
+        count = Math.min(remaining, this.length - this.position);
+        this.copyColors(b, offset, count);
+      } else {
+        count = Math.min(remaining, this.length + PALETTE_LENGTH - this.position);
+      }
+      this.position += count;
+      offset += count;
+      remaining -= count;
+      if (this.position == this.length + PALETTE_LENGTH) {
+        this.publishFrame();
+      }
+    }
+  }
+
+  private void start() {
+    if (!this.started) {
+      this.started = true;
+      this.player.startStream(this.session, this.offset);
+    }
+  }
+
+  private void copyColors(final byte @NotNull [] b, final int offset, final int count) {
+    if (this.position == 0) {
+      final ByteBufCarrier carrier =
+          this.player.isCurrentStream(this.session)
+              ? this.player.claimDitheredFrame(this.length)
+              : null;
+      this.frame = carrier == null ? null : carrier.getNioBuffer();
+    }
+    if (this.frame != null) {
+      this.frame.put(this.position, b, offset, count);
+    }
+  }
+
+  private void publishFrame() {
+    final long timestamp = this.offset + this.index++ * 1000 / this.fps;
+    if (this.frame != null) {
+      this.player.publishFrame(timestamp);
+      this.frame = null;
+    }
+    this.position = 0;
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Receives the rawvideo output of FFmpeg from Jaffree's pipe pump.
+
+FFmpeg writes packed bgra pixels, so every pixel read as a little endian
+int is 0xAARRGGBB, the same layout BufferedImage#getRGB returns. The pump
+hands us arbitrary chunks, which are gathered in one direct buffer the
+size of a frame. Once a frame is complete, its IntBuffer view is bulk
+copied into the next slot of the frame ring. Claiming that slot blocks
+while the ring is full, which in turn stops the pump from draining the
+pipe and lets FFmpeg block on its writes.
+
+The output runs at a constant frame rate, so the timestamp of a frame is
+its index divided by the frame rate, after the position the process
+started at.
+ */
+final class RawFrameOutputStream extends OutputStream {
+
+  private final FFmpegMediaPlayer player;
+  private final int session;
+  private final long offset;
+  private final ByteBuffer frame;
+  private final IntBuffer pixels;
+  private final int length;
+  private final int fps;
+
+  private long index;
+  private boolean started;
+
+  RawFrameOutputStream(
+      @NotNull final FFmpegMediaPlayer player,
+      final int session,
+      final long offset,
+      final int width,
+      final int height,
+      final int fps) {
+    this.player = player;
+    this.session = session;
+    this.offset = offset;
+    this.length = width * height;
+    this.fps = fps;
+    this.frame = ByteBuffer.allocateDirect(this.length << 2).order(ByteOrder.LITTLE_ENDIAN);
+    this.pixels = this.frame.asIntBuffer();
+  }
+
+  @Override
+  public void write(final int b) {
+    this.start();
+    this.frame.put((byte) b);
+    this.checkFrame();
+  }
+
+  @Override
+  public void write(final byte @NotNull [] b, final int off, final int len) {
+    this.start();
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      final int count = Math.min(remaining, this.frame.remaining());
+      this.frame.put(b, offset, count);
+      offset += count;
+      remaining -= count;
+      this.checkFrame();
+    }
+  }
+
+  private void start() {
+    if (!this.started) {
+      this.started = true;
+      this.player.startStream(this.session, this.offset);
+    }
+  }
+
+  private void checkFrame() {
+    if (this.frame.hasRemaining()) {
+      return;
+    }
+    this.frame.clear();
+    final long timestamp = this.offset + this.index++ * 1000 / this.fps;
+    final int[] slot =
+        this.player.isCurrentStream(this.session) ? this.player.claimFrame(this.length) : null;
+    if (slot != null) {
+      this.pixels.get(0, slot);
+      this.player.publishFrame(timestamp);
+    }
+  }
+}
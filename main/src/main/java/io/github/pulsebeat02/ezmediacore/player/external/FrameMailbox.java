@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.external;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+A single slot, latest wins handoff of frames from the VLC render thread
+to a consumer thread, so a slow callback can never block VLC.
+
+There are three frame arrays. VLC copies every frame into its back array
+and swaps it with the one in the mailbox, while the consumer swaps its
+front array with the mailbox whenever a new frame arrived. Each side
+therefore double buffers against the mailbox, both swaps are a single
+atomic exchange, and neither side ever waits for the other. If VLC
+publishes again before the consumer took the previous frame, that stale
+frame is overwritten and counted as dropped instead of being queued.
+
+The state packs the index of the array in the mailbox with a bit telling
+whether it holds a frame the consumer has not seen yet.
+
+The front array belongs to one consumer thread at a time. A thread which
+is stopped hands it back through the spare slot when it exits, which may
+be after a new thread was started if it was still inside the consumer,
+and the new thread waits for the front array before taking any frame.
+ */
+final class FrameMailbox implements Runnable {
+
+  private static final int INDEX;
+  private static final int FRESH;
+
+  static {
+    INDEX = 0x3;
+    FRESH = 0x4;
+  }
+
+  private final int[][] frames;
+  private final AtomicInteger state;
+  private final AtomicInteger spare;
+  private final LongAdder dropped;
+
+  private volatile Consumer<int[]> consumer;
+  private volatile Thread thread;
+  private int back;
+
+  FrameMailbox(final int length, @NotNull final Consumer<int[]> consumer) {
+    this.frames = new int[3][length];
+    this.state = new AtomicInteger(1);
+    this.spare = new AtomicInteger(2);
+    this.dropped = new LongAdder();
+    this.consumer = consumer;
+    this.back = 0;
+  }
+
+  synchronized void start() {
+    if (this.thread != null) {
+      return;
+    }
+    final Thread thread = new Thread(this, "EzMediaCore VLC Frame Consumer");
+    thread.setDaemon(true);
+    this.thread = thread;
+    thread.start();
+  }
+
+  synchronized void stop() {
+    final Thread thread = this.thread;
+    if (thread != null) {
+      thread.interrupt();
+      this.thread = null;
+    }
+  }
+
+  /**
+   * Returns the array the next frame should be copied into. Only the producer may call this.
+   *
+   * @return the back array
+   */
+  int @NotNull [] getBack() {
+    return this.frames[this.back];
+  }
+
+  /** Hands the back array to the consumer, replacing a frame it has not taken yet. */
+  void publish() {
+    final int previous = this.state.getAndSet(this.back | FRESH);
+    this.back = previous & INDEX;
+    if ((previous & FRESH) != 0) {
+      this.dropped.increment();
+    }
+    final Thread thread = this.thread;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  @Override
+  public void run() {
+    final Thread current = Thread.currentThread();
+    int front = this.claimFront(current);
+    if (front == -1) {
+      return;
+    }
+    try {
+      while (this.thread == current) {
+        if ((this.state.get() & FRESH) == 0) {
+          LockSupport.park(this);
+          if (Thread.interrupted()) {
+            return;
+          }
+          continue;
+        }
+        front = this.state.getAndSet(front) & INDEX;
+        this.consumer.accept(this.frames[front]);
+      }
+    } finally {
+      this.spare.set(front);
+      final Thread next = this.thread;
+      if (next != null) {
+        LockSupport.unpark(next);
+      }
+    }
+  }
+
+  private int claimFront(@NotNull final Thread current) {
+    int front;
+    while ((front = this.spare.getAndSet(-1)) == -1) {
+      if (this.thread != current || Thread.interrupted()) {
+        return -1;
+      }
+      LockSupport.park(this);
+    }
+    return front;
+  }
+
+  void setConsumer(@NotNull final Consumer<int[]> consumer) {
+    this.consumer = consumer;
+  }
+
+  long getDroppedFrames() {
+    return this.dropped.sum();
+  }
+}
@@ -29,6 +29,7 @@ import com.sun.jna.Pointer;
 import io.github.pulsebeat02.ezmediacore.callback.Callback;
 import io.github.pulsebeat02.ezmediacore.callback.DelayConfiguration;
 import io.github.pulsebeat02.ezmediacore.callback.Identifier;
+import io.github.pulsebeat02.ezmediacore.callback.StagedCallback;
 import io.github.pulsebeat02.ezmediacore.callback.Viewers;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
 import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
@@ -38,6 +39,7 @@ import io.github.pulsebeat02.ezmediacore.player.SoundKey;
 import io.github.pulsebeat02.ezmediacore.player.VideoBuilder;
 import io.github.pulsebeat02.ezmediacore.utility.media.RequestUtils;
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -59,28 +61,63 @@ import uk.co.caprica.vlcj.player.embedded.videosurface.VideoSurfaceAdapter;
 import uk.co.caprica.vlcj.player.embedded.videosurface.WindowsVideoSurfaceAdapter;
 import uk.co.caprica.vlcj.player.embedded.videosurface.callback.BufferFormat;
 import uk.co.caprica.vlcj.player.embedded.videosurface.callback.BufferFormatCallback;
+import uk.co.caprica.vlcj.player.embedded.videosurface.callback.RenderCallback;
 import uk.co.caprica.vlcj.player.embedded.videosurface.callback.RenderCallbackAdapter;
 import uk.co.caprica.vlcj.player.embedded.videosurface.callback.format.RV32BufferFormat;
 
 public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlayer {
 
   private final VideoSurfaceAdapter adapter;
+  private final FrameMailbox mailbox;
   private BufferFormatCallback bufferFormatCallback;
-  private MinecraftVideoRenderCallback videoCallback;
+  private RenderCallback videoCallback;
   private MinecraftAudioCallback audioCallback;
   private MediaPlayerFactory factory;
   private EmbeddedMediaPlayer player;
   private NativeLog logger;
+  private volatile IntBuffer frame;
 
   VLCMediaPlayer(
       @NotNull final Callback callback,
       @NotNull final Viewers viewers,
       @NotNull final Dimension pixelDimension,
       @NotNull final FrameConfiguration fps,
-      @Nullable final SoundKey key) {
+      @Nullable final SoundKey key,
+      final boolean decoupled) {
     super(callback, viewers, pixelDimension, fps, key);
     this.adapter = this.getAdapter();
-    this.videoCallback = new MinecraftVideoRenderCallback(this.getCallback()::process);
+    this.mailbox =
+        decoupled
+            ? new FrameMailbox(
+                pixelDimension.getWidth() * pixelDimension.getHeight(), callback::process)
+            : null;
+    this.videoCallback = this.createVideoCallback(this.getCallback());
+  }
+
+  /*
+
+  By default, frames are only copied out of VLC's buffer on its render
+  thread and handed to the callback through a FrameMailbox, so slow
+  dithering or sending never stalls VLC's decoding or audio.
+
+  Without the mailbox, the callback runs on the render thread. Map
+  callbacks then dither straight from the buffer VLC renders into, as the
+  pixels are only read once, and other callbacks get a copy of the frame
+  in an array.
+
+   */
+  private @NotNull RenderCallback createVideoCallback(@NotNull final Callback callback) {
+    if (this.mailbox != null) {
+      return this.createMailboxCallback(callback::process);
+    }
+    return callback instanceof StagedCallback
+        ? new NativeVideoRenderCallback((StagedCallback) callback)
+        : new MinecraftVideoRenderCallback(callback::process);
+  }
+
+  private @NotNull RenderCallback createMailboxCallback(@NotNull final Consumer<int[]> pixels) {
+    this.mailbox.setConsumer(pixels);
+    return new MailboxVideoRenderCallback(this.mailbox);
   }
 
   private VideoSurfaceAdapter getAdapter() {
@@ -99,6 +136,7 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
     if (this.player == null) {
       this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
     }
+    this.startMailbox();
     this.playAudio();
     this.player.media().play(this.getDirectVideoMrl().getMrl());
   }
@@ -108,11 +146,13 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
     super.pause();
     this.stopAudio();
     this.player.controls().stop();
+    this.stopMailbox();
   }
 
   @Override
   public void resume(@NotNull final MrlConfiguration mrl, @NotNull final Object... arguments) {
     super.resume(mrl, arguments);
+    this.startMailbox();
     if (this.player == null) {
       this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
       this.playAudio();
@@ -126,6 +166,7 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
   @Override
   public void release() {
     super.release();
+    this.stopMailbox();
     if (this.player != null) {
       this.player.controls().stop();
       this.logger.release();
@@ -134,6 +175,32 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
     }
   }
 
+  private void startMailbox() {
+    if (this.mailbox != null) {
+      this.mailbox.start();
+    }
+  }
+
+  private void stopMailbox() {
+    if (this.mailbox != null) {
+      this.mailbox.stop();
+    }
+  }
+
+  /**
+   * Returns how many frames VLC rendered which were replaced by a newer frame before the callback
+   * could take them. Always zero if the player is not decoupled from the callback.
+   *
+   * @return the number of dropped frames
+   */
+  public long getDroppedFrames() {
+    return this.mailbox == null ? 0 : this.mailbox.getDroppedFrames();
+  }
+
+  public boolean isDecoupled() {
+    return this.mailbox != null;
+  }
+
   @Override
   public void initializePlayer(
       @NotNull final MrlConfiguration mrl,
@@ -221,6 +288,8 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
 
       @Override
       public void allocatedBuffers(final ByteBuffer[] buffers) {
+        VLCMediaPlayer.this.frame =
+            buffers[0].asIntBuffer().limit(dimension.getWidth() * dimension.getHeight());
       }
     };
   }
@@ -228,7 +297,10 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
   @Override
   public void setCustomVideoAdapter(@NotNull final Consumer<int[]> pixels) {
     this.checkIfReleased();
-    this.videoCallback = new MinecraftVideoRenderCallback(pixels);
+    this.videoCallback =
+        this.mailbox == null
+            ? new MinecraftVideoRenderCallback(pixels)
+            : this.createMailboxCallback(pixels);
     this.player.videoSurface().set(this.getSurface());
   }
 
@@ -245,7 +317,9 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
   }
 
   private void modifyPlayerAttributes() {
-    this.setCustomVideoAdapter(this.getCallback()::process);
+    this.checkIfReleased();
+    this.videoCallback = this.createVideoCallback(this.getCallback());
+    this.player.videoSurface().set(this.getSurface());
   }
 
   @Override
@@ -256,6 +330,8 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
 
   public static final class Builder extends VideoBuilder {
 
+    private boolean decoupled = true;
+
     public Builder() {
     }
 
@@ -287,11 +363,23 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
       return this;
     }
 
+    @Contract("_ -> this")
+    public @NotNull Builder decoupled(final boolean decoupled) {
+      this.decoupled = decoupled;
+      return this;
+    }
+
     @Contract(" -> new")
     @Override
     public @NotNull MediaPlayer build() {
       final Callback callback = this.getCallback();
-      return new VLCMediaPlayer(callback, callback.getWatchers(), this.getDims(), this.getRate(), this.getKey());
+      return new VLCMediaPlayer(
+          callback,
+          callback.getWatchers(),
+          this.getDims(),
+          this.getRate(),
+          this.getKey(),
+          this.decoupled);
     }
   }
 
@@ -320,6 +408,55 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
     }
   }
 
+  private class MailboxVideoRenderCallback implements RenderCallback {
+
+    private final FrameMailbox mailbox;
+
+    MailboxVideoRenderCallback(@NotNull final FrameMailbox mailbox) {
+      this.mailbox = mailbox;
+    }
+
+    @Override
+    public void display(
+        final uk.co.caprica.vlcj.player.base.MediaPlayer mediaPlayer,
+        final ByteBuffer[] nativeBuffers,
+        final BufferFormat bufferFormat) {
+      final IntBuffer frame = VLCMediaPlayer.this.frame;
+      if (frame != null) {
+        frame.get(0, this.mailbox.getBack());
+        this.mailbox.publish();
+      }
+    }
+
+    public @NotNull FrameMailbox getMailbox() {
+      return this.mailbox;
+    }
+  }
+
+  private class NativeVideoRenderCallback implements RenderCallback {
+
+    private final StagedCallback callback;
+
+    NativeVideoRenderCallback(@NotNull final StagedCallback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void display(
+        final uk.co.caprica.vlcj.player.base.MediaPlayer mediaPlayer,
+        final ByteBuffer[] nativeBuffers,
+        final BufferFormat bufferFormat) {
+      final IntBuffer frame = VLCMediaPlayer.this.frame;
+      if (frame != null) {
+        this.callback.process(frame);
+      }
+    }
+
+    public @NotNull StagedCallback getCallback() {
+      return this.callback;
+    }
+  }
+
   private class MinecraftAudioCallback extends AudioCallbackAdapter {
 
     private final Consumer<byte[]> callback;
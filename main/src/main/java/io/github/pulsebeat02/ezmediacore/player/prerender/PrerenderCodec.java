@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Delta frames of a pre-rendered map video.
+
+A delta frame stores the XOR of a frame with the frame before it, one map
+(128 by 128 pixels, clipped at the edges) at a time, in the same order as
+the maps of the screen. Every map starts with an unsigned short holding
+the length of its data, so a map which did not change costs two bytes.
+The data of a map is a run length encoding of its XOR values in row
+order, where every run starts with a control byte:
+  0 to 127     the next control + 1 bytes are XOR values
+  -128 to -1   the next -control pixels did not change
+A map ends when its data does, so pixels after the last literal run are
+unchanged as well.
+
+Applying a delta only touches the pixels which changed and does not
+allocate, so it can run on the thread which sends the frames.
+ */
+final class PrerenderCodec {
+
+  private static final int MAXIMUM_RUN;
+
+  static {
+    MAXIMUM_RUN = 128;
+  }
+
+  private PrerenderCodec() {}
+
+  /**
+   * Returns the largest size a delta frame can have. At worst, every other pixel changes, which
+   * costs two bytes for a changed pixel and one for an unchanged one.
+   */
+  static int getMaximumDeltaLength(final int width, final int height) {
+    return width * height * 2 + getMapCount(width, height) * Short.BYTES;
+  }
+
+  static int getMapCount(final int width, final int height) {
+    final int size = PrerenderFormat.MAP_SIZE;
+    return ((width + size - 1) / size) * ((height + size - 1) / size);
+  }
+
+  /**
+   * Encodes the difference between two frames.
+   *
+   * @param previous the frame before
+   * @param current the frame to encode
+   * @param scratch a buffer of at least one map of pixels
+   * @param width the width of the frames
+   * @param height the height of the frames
+   * @param output the buffer to write the delta to, from index 0
+   * @return the length of the delta
+   */
+  static int encodeDelta(
+      final byte @NotNull [] previous,
+      final byte @NotNull [] current,
+      final byte @NotNull [] scratch,
+      final int width,
+      final int height,
+      @NotNull final ByteBuffer output) {
+    final int size = PrerenderFormat.MAP_SIZE;
+    output.clear();
+    for (int y = 0; y < height; y += size) {
+      final int rows = Math.min(size, height - y);
+      for (int x = 0; x < width; x += size) {
+        final int columns = Math.min(size, width - x);
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+          final int base = (y + row) * width + x;
+          for (int column = 0; column < columns; column++) {
+            scratch[count++] = (byte) (previous[base + column] ^ current[base + column]);
+          }
+        }
+        encodeMap(scratch, count, output);
+      }
+    }
+    return output.position();
+  }
+
+  private static void encodeMap(
+      final byte @NotNull [] xor, final int count, @NotNull final ByteBuffer output) {
+    final int header = output.position();
+    output.putShort((short) 0);
+    int end = output.position();
+    int i = 0;
+    while (i < count) {
+      int run = 0;
+      if (xor[i] == 0) {
+        while (i + run < count && run < MAXIMUM_RUN && xor[i + run] == 0) {
+          run++;
+        }
+        output.put((byte) -run);
+      } else {
+        while (i + run < count && run < MAXIMUM_RUN && xor[i + run] != 0) {
+          run++;
+        }
+        output.put((byte) (run - 1)).put(xor, i, run);
+        end = output.position();
+      }
+      i += run;
+    }
+    output.position(end);
+    output.putShort(header, (short) (end - header - Short.BYTES));
+  }
+
+  /**
+   * Applies a delta frame to the frame before it.
+   *
+   * @param source the buffer holding the delta
+   * @param position the index of the delta in the buffer
+   * @param frame the frame before, which is updated in place
+   * @param width the width of the frame
+   * @param height the height of the frame
+   */
+  static void applyDelta(
+      @NotNull final ByteBuffer source,
+      final int position,
+      final byte @NotNull [] frame,
+      final int width,
+      final int height) {
+    final int size = PrerenderFormat.MAP_SIZE;
+    int index = position;
+    for (int y = 0; y < height; y += size) {
+      for (int x = 0; x < width; x += size) {
+        final int length = source.getShort(index) & 0xFFFF;
+        index += Short.BYTES;
+        if (length != 0) {
+          applyMap(source, index, index + length, frame, width, x, y, Math.min(size, width - x));
+          index += length;
+        }
+      }
+    }
+  }
+
+  private static void applyMap(
+      @NotNull final ByteBuffer source,
+      final int start,
+      final int end,
+      final byte @NotNull [] frame,
+      final int width,
+      final int x,
+      final int y,
+      final int columns) {
+    int index = start;
+    int pixel = 0;
+    while (index < end) {
+      final byte control = source.get(index++);
+      if (control < 0) {
+        pixel -= control;
+        continue;
+      }
+      int run = control + 1;
+      final int row = pixel / columns;
+      int column = pixel - row * columns;
+      int base = (y + row) * width + x;
+      pixel += run;
+      while (run > 0) {
+        final int count = Math.min(run, columns - column);
+        final int offset = base + column;
+        for (int i = 0; i < count; i++) {
+          frame[offset + i] ^= source.get(index++);
+        }
+        run -= count;
+        column = 0;
+        base += width;
+      }
+    }
+  }
+}
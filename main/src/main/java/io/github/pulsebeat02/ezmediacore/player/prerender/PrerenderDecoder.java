@@ -0,0 +1,83 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Rebuilds the frames of a pre-rendered video into one frame buffer, which
+a carrier exposes to the callback.
+
+Moving to the next frame applies a single delta. Jumping elsewhere (a
+seek, or skipping frames when playback falls behind) copies the nearest
+keyframe and applies the deltas after it, unless the frame currently
+decoded is already between that keyframe and the target. Either way, the
+work is bounded by the keyframe interval and nothing is allocated.
+ */
+final class PrerenderDecoder {
+
+  private final PrerenderFile file;
+  private final byte[] frame;
+  private final BufferCarrier carrier;
+  private int current;
+
+  PrerenderDecoder(@NotNull final PrerenderFile file) {
+    this.file = file;
+    this.frame = new byte[file.getWidth() * file.getHeight()];
+    this.carrier = ByteBufCarrier.ofByteBufCarrier(Unpooled.wrappedBuffer(this.frame));
+    this.current = -1;
+  }
+
+  /**
+   * Decodes a frame.
+   *
+   * @param target the index of the frame
+   * @return a carrier holding the frame, valid until the next call
+   */
+  @NotNull
+  BufferCarrier decode(final int target) {
+    final PrerenderFile file = this.file;
+    final int keyframe = file.getKeyframe(target);
+    int frame = this.current;
+    if (frame > target || frame < keyframe) {
+      file.getSegment(keyframe).get(file.getOffset(keyframe), this.frame);
+      frame = keyframe;
+    }
+    while (frame < target) {
+      frame++;
+      PrerenderCodec.applyDelta(
+          file.getSegment(frame),
+          file.getOffset(frame),
+          this.frame,
+          file.getWidth(),
+          file.getHeight());
+    }
+    this.current = target;
+    return this.carrier;
+  }
+}
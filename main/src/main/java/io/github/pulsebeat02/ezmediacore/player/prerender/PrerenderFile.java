@@ -0,0 +1,226 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import io.github.pulsebeat02.ezmediacore.throwable.InvalidPrerenderException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+A pre-rendered map video opened for playback. The frame data is mapped
+read only, so frames are paged in by the operating system on demand and
+shared between every player showing the same file. A single mapping can
+not be larger than Integer.MAX_VALUE bytes, so longer videos are split
+into several segments, always between two frames.
+
+Only the index is read into memory, as flat arrays. It doubles as the
+seek table: frames are sampled at a constant frame rate, so the frame
+shown at a time is found by a division, and every frame records the
+keyframe its decoding has to start at.
+ */
+final class PrerenderFile {
+
+  private final Path path;
+  private final int width;
+  private final int height;
+  private final int fps;
+  private final long[] timestamps;
+  private final int[] segments;
+  private final int[] offsets;
+  private final int[] keyframes;
+  private final MappedByteBuffer[] mappings;
+
+  PrerenderFile(@NotNull final Path path) throws IOException {
+    this.path = path;
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final ByteBuffer header = this.read(channel, 0, PrerenderFormat.HEADER_SIZE);
+      if (header.getInt() != PrerenderFormat.MAGIC) {
+        throw new InvalidPrerenderException(path.toString(), "Not a pre-rendered video.");
+      }
+      final int version = header.getInt();
+      if (version < 1 || version > PrerenderFormat.VERSION) {
+        throw new InvalidPrerenderException(
+            path.toString(), "Unsupported version %d.".formatted(version));
+      }
+      this.width = header.getInt();
+      this.height = header.getInt();
+      this.fps = header.getInt();
+      final int frames = header.getInt();
+      final long index = header.getLong();
+      if (this.width <= 0 || this.height <= 0 || this.fps <= 0 || frames <= 0) {
+        throw new InvalidPrerenderException(path.toString(), "The video is empty.");
+      }
+      this.timestamps = new long[frames];
+      this.segments = new int[frames];
+      this.offsets = new int[frames];
+      this.keyframes = new int[frames];
+      this.mappings = this.map(channel, index, frames, version);
+    }
+  }
+
+  @Contract("_ -> new")
+  static @NotNull PrerenderFile ofFile(@NotNull final Path path) throws IOException {
+    return new PrerenderFile(path);
+  }
+
+  private @NotNull MappedByteBuffer @NotNull [] map(
+      @NotNull final FileChannel channel, final long index, final int frames, final int version)
+      throws IOException {
+    final boolean legacy = version == 1;
+    final int size =
+        legacy ? PrerenderFormat.LEGACY_INDEX_ENTRY_SIZE : PrerenderFormat.INDEX_ENTRY_SIZE;
+    final ByteBuffer entries = this.read(channel, index, (long) frames * size);
+    final List<MappedByteBuffer> mappings = new ArrayList<>();
+    long start = -1;
+    long end = -1;
+    int keyframe = -1;
+    for (int i = 0; i < frames; i++) {
+      this.timestamps[i] = entries.getLong();
+      final long position = entries.getLong();
+      final int length = entries.getInt();
+      final byte type = legacy ? PrerenderFormat.KEYFRAME : entries.get();
+      if (type == PrerenderFormat.KEYFRAME) {
+        keyframe = i;
+      }
+      if (!this.isValid(type, keyframe, position, length, index)) {
+        throw new InvalidPrerenderException(
+            this.path.toString(), "Frame %d is corrupted.".formatted(i));
+      }
+      if (start == -1 || position + length - start > Integer.MAX_VALUE) {
+        if (start != -1) {
+          mappings.add(channel.map(MapMode.READ_ONLY, start, end - start));
+        }
+        start = position;
+      }
+      end = Math.max(end, position + length);
+      this.segments[i] = mappings.size();
+      this.offsets[i] = (int) (position - start);
+      this.keyframes[i] = keyframe;
+    }
+    mappings.add(channel.map(MapMode.READ_ONLY, start, end - start));
+    return mappings.toArray(MappedByteBuffer[]::new);
+  }
+
+  private boolean isValid(
+      final byte type, final int keyframe, final long position, final int length, final long end) {
+    if (position < PrerenderFormat.HEADER_SIZE || length < 0 || position + length > end) {
+      return false;
+    }
+    if (type == PrerenderFormat.KEYFRAME) {
+      return length == this.width * this.height;
+    }
+    return type == PrerenderFormat.DELTA
+        && keyframe != -1
+        && length >= PrerenderCodec.getMapCount(this.width, this.height) * Short.BYTES;
+  }
+
+  private @NotNull ByteBuffer read(
+      @NotNull final FileChannel channel, final long position, final long length)
+      throws IOException {
+    if (length > Integer.MAX_VALUE || position + length > channel.size()) {
+      throw new InvalidPrerenderException(this.path.toString(), "The file is truncated.");
+    }
+    final ByteBuffer buffer = ByteBuffer.allocate((int) length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new InvalidPrerenderException(this.path.toString(), "The file is truncated.");
+      }
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * Finds the frame which is shown at a point in the video.
+   *
+   * @param time the time since the start of the video, in milliseconds
+   * @return the last frame whose timestamp is not after the time
+   */
+  int findFrame(final long time) {
+    final int last = this.timestamps.length - 1;
+    int frame = (int) Math.max(0, Math.min(last, time * this.fps / 1000));
+    while (frame > 0 && this.timestamps[frame] > time) {
+      frame--;
+    }
+    while (frame < last && this.timestamps[frame + 1] <= time) {
+      frame++;
+    }
+    return frame;
+  }
+
+  @NotNull
+  ByteBuffer getSegment(final int frame) {
+    return this.mappings[this.segments[frame]];
+  }
+
+  int getOffset(final int frame) {
+    return this.offsets[frame];
+  }
+
+  int getKeyframe(final int frame) {
+    return this.keyframes[frame];
+  }
+
+  boolean isKeyframe(final int frame) {
+    return this.keyframes[frame] == frame;
+  }
+
+  long getTimestamp(final int frame) {
+    return this.timestamps[frame];
+  }
+
+  int getFrameCount() {
+    return this.timestamps.length;
+  }
+
+  long getDuration() {
+    return this.timestamps[this.timestamps.length - 1] + 1000L / this.fps;
+  }
+
+  int getWidth() {
+    return this.width;
+  }
+
+  int getHeight() {
+    return this.height;
+  }
+
+  int getFps() {
+    return this.fps;
+  }
+
+  @NotNull
+  Path getPath() {
+    return this.path;
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+/*
+
+Pre-rendered map video (.emcv), the map colors of every frame of a video
+after scaling and dithering, so playing it back only has to send them.
+
+Layout (big endian):
+  int   magic     "EMCV"
+  int   version
+  int   width     frame width in pixels
+  int   height    frame height in pixels
+  int   fps
+  int   frames    number of frames
+  long  index     position of the frame index
+  byte  data[]    the frames
+  index, for every frame:
+    long  timestamp  milliseconds since the start of the video
+    long  position   position of the frame data
+    int   length     length of the frame data
+    byte  type       KEYFRAME or DELTA (version 2)
+
+A keyframe holds one map color per pixel. A delta frame holds the changes
+since the frame before it (see PrerenderCodec), so decoding a frame starts
+at the keyframe before it. Keyframes are written at a fixed interval, and
+whenever a delta would be larger than the frame itself. Version 1 files
+only contain keyframes.
+
+The header is written last, so a file which was not finished has a frame
+count of zero and is rejected.
+ */
+final class PrerenderFormat {
+
+  static final String EXTENSION;
+  static final int MAGIC;
+  static final int VERSION;
+  static final int HEADER_SIZE;
+  static final int INDEX_ENTRY_SIZE;
+  static final int LEGACY_INDEX_ENTRY_SIZE;
+  static final byte KEYFRAME;
+  static final byte DELTA;
+  static final int MAP_SIZE;
+
+  static {
+    EXTENSION = ".emcv";
+    MAGIC = 0x454D4356;
+    VERSION = 2;
+    HEADER_SIZE = Integer.BYTES * 6 + Long.BYTES;
+    INDEX_ENTRY_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES;
+    LEGACY_INDEX_ENTRY_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+    KEYFRAME = 0;
+    DELTA = 1;
+    MAP_SIZE = 128;
+  }
+
+  private PrerenderFormat() {}
+}
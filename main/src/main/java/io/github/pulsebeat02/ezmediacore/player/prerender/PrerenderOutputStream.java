@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Receives the scaled rawvideo output of FFmpeg while pre-rendering. Like
+the raw ingestion of the FFmpeg player, the bgra pixels are gathered into
+one direct buffer, which read as little endian ints gives the ARGB pixels
+the dither algorithms expect. Every complete frame is dithered into the
+same color buffer and appended to the writer.
+
+Nothing here is timed, so FFmpeg decodes as fast as the algorithm keeps
+up with, and the timestamp of a frame is its index divided by the frame
+rate.
+ */
+final class PrerenderOutputStream extends OutputStream {
+
+  private final PrerenderWriter writer;
+  private final DitherAlgorithm algorithm;
+  private final ByteBuffer frame;
+  private final IntBuffer view;
+  private final int[] pixels;
+  private final ByteBuffer colors;
+  private final int width;
+  private final int fps;
+
+  private long index;
+
+  PrerenderOutputStream(
+      @NotNull final PrerenderWriter writer,
+      @NotNull final DitherAlgorithm algorithm,
+      final int width,
+      final int height,
+      final int fps) {
+    final int length = width * height;
+    this.writer = writer;
+    this.algorithm = algorithm;
+    this.width = width;
+    this.fps = fps;
+    this.frame = ByteBuffer.allocateDirect(length << 2).order(ByteOrder.LITTLE_ENDIAN);
+    this.view = this.frame.asIntBuffer();
+    this.pixels = new int[length];
+    this.colors = ByteBuffer.allocate(length);
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    this.frame.put((byte) b);
+    this.checkFrame();
+  }
+
+  @Override
+  public void write(final byte @NotNull [] b, final int off, final int len) throws IOException {
+    int offset = off;
+    int remaining = len;
+    while (remaining > 0) {
+      final int count = Math.min(remaining, this.frame.remaining());
+      this.frame.put(b, offset, count);
+      offset += count;
+      remaining -= count;
+      this.checkFrame();
+    }
+  }
+
+  private void checkFrame() throws IOException {
+    if (this.frame.hasRemaining()) {
+      return;
+    }
+    this.frame.clear();
+    this.view.get(0, this.pixels);
+    this.algorithm.ditherInto(this.pixels, this.width, this.colors);
+    this.writer.writeFrame(this.colors.clear(), this.index++ * 1000 / this.fps);
+  }
+}
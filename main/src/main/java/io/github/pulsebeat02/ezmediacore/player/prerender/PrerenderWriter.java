@@ -0,0 +1,218 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Writes a pre-rendered map video frame by frame. Frames are appended to a
+temporary file next to the output, and the index and the header are added
+when the writer is finished. Only then is the file moved to its final
+path, so players never see a half written video, and closing a writer
+which was not finished throws the frames away.
+
+The writer keeps the frame before, and stores every frame which is not
+due to be a keyframe as a delta against it.
+ */
+public final class PrerenderWriter implements AutoCloseable {
+
+  private final Path output;
+  private final Path temp;
+  private final FileChannel channel;
+  private final ByteBuffer entries;
+  private final int width;
+  private final int height;
+  private final int fps;
+  private final int interval;
+  private final byte[] previous;
+  private final byte[] current;
+  private final byte[] scratch;
+  private final ByteBuffer keyframe;
+  private final ByteBuffer delta;
+
+  private ByteBuffer index;
+  private long position;
+  private int frames;
+  private boolean closed;
+
+  PrerenderWriter(
+      @NotNull final Path output,
+      final int width,
+      final int height,
+      final int fps,
+      final int interval)
+      throws IOException {
+    final int length = width * height;
+    this.output = output;
+    this.width = width;
+    this.height = height;
+    this.fps = fps;
+    this.interval = interval;
+    this.previous = new byte[length];
+    this.current = new byte[length];
+    this.scratch = new byte[PrerenderFormat.MAP_SIZE * PrerenderFormat.MAP_SIZE];
+    this.keyframe = ByteBuffer.wrap(this.current);
+    this.delta = ByteBuffer.allocate(PrerenderCodec.getMaximumDeltaLength(width, height));
+    final Path folder = output.toAbsolutePath().getParent();
+    Files.createDirectories(folder);
+    this.temp = Files.createTempFile(folder, output.getFileName().toString(), ".tmp");
+    this.channel = FileChannel.open(this.temp, StandardOpenOption.WRITE);
+    this.entries = ByteBuffer.allocate(PrerenderFormat.INDEX_ENTRY_SIZE);
+    this.index = ByteBuffer.allocate(PrerenderFormat.INDEX_ENTRY_SIZE << 10);
+    this.position = PrerenderFormat.HEADER_SIZE;
+    this.channel.position(this.position);
+  }
+
+  @Contract("_, _, _, _, _ -> new")
+  public static @NotNull PrerenderWriter ofWriter(
+      @NotNull final Path output,
+      final int width,
+      final int height,
+      final int fps,
+      final int interval)
+      throws IOException {
+    checkNotNull(output, "Output cannot be null!");
+    checkArgument(width > 0 && height > 0, "Dimensions must be positive!");
+    checkArgument(fps > 0, "Frame rate must be positive!");
+    checkArgument(interval > 0, "Keyframe interval must be positive!");
+    return new PrerenderWriter(output, width, height, fps, interval);
+  }
+
+  @Contract("_, _, _, _ -> new")
+  public static @NotNull PrerenderWriter ofWriter(
+      @NotNull final Path output, final int width, final int height, final int fps)
+      throws IOException {
+    return ofWriter(output, width, height, fps, fps);
+  }
+
+  /**
+   * Appends a frame to the video.
+   *
+   * @param colors the map colors of the frame, from its position to its limit
+   * @param timestamp the time the frame is shown at, in milliseconds since the start
+   * @throws IOException if the frame could not be written
+   */
+  public void writeFrame(@NotNull final ByteBuffer colors, final long timestamp)
+      throws IOException {
+    checkState(!this.closed, "Writer is already closed!");
+    checkArgument(
+        colors.remaining() == this.width * this.height, "Frame does not match the dimensions!");
+    colors.get(colors.position(), this.current);
+    final ByteBuffer data;
+    final byte type;
+    if (this.frames % this.interval != 0 && this.encodeDelta() < this.current.length) {
+      data = this.delta.flip();
+      type = PrerenderFormat.DELTA;
+    } else {
+      data = this.keyframe.clear();
+      type = PrerenderFormat.KEYFRAME;
+    }
+    final int length = data.remaining();
+    this.writeFully(data);
+    this.entries.clear();
+    this.entries.putLong(timestamp).putLong(this.position).putInt(length).put(type).flip();
+    this.addEntry(this.entries);
+    System.arraycopy(this.current, 0, this.previous, 0, this.current.length);
+    this.position += length;
+    this.frames++;
+  }
+
+  private int encodeDelta() {
+    return PrerenderCodec.encodeDelta(
+        this.previous, this.current, this.scratch, this.width, this.height, this.delta);
+  }
+
+  private void addEntry(@NotNull final ByteBuffer entry) {
+    if (this.index.remaining() < entry.remaining()) {
+      final ByteBuffer larger = ByteBuffer.allocate(this.index.capacity() << 1);
+      this.index.flip();
+      larger.put(this.index);
+      this.index = larger;
+    }
+    this.index.put(entry);
+  }
+
+  public int getFrameCount() {
+    return this.frames;
+  }
+
+  /**
+   * Writes the index and the header, and moves the video to its output path. Frames can not be
+   * added afterwards.
+   *
+   * @throws IOException if the video could not be written
+   */
+  public void finish() throws IOException {
+    checkState(!this.closed, "Writer is already closed!");
+    this.closed = true;
+    this.index.flip();
+    this.writeFully(this.index);
+    final ByteBuffer header = ByteBuffer.allocate(PrerenderFormat.HEADER_SIZE);
+    header
+        .putInt(PrerenderFormat.MAGIC)
+        .putInt(PrerenderFormat.VERSION)
+        .putInt(this.width)
+        .putInt(this.height)
+        .putInt(this.fps)
+        .putInt(this.frames)
+        .putLong(this.position)
+        .flip();
+    this.channel.position(0);
+    this.writeFully(header);
+    this.channel.force(true);
+    this.channel.close();
+    Files.move(
+        this.temp,
+        this.output,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /** Discards the video unless it was finished. */
+  @Override
+  public void close() throws IOException {
+    this.closed = true;
+    this.channel.close();
+    Files.deleteIfExists(this.temp);
+  }
+
+  private void writeFully(@NotNull final ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      this.channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.callback.DelayConfiguration;
+import io.github.pulsebeat02.ezmediacore.callback.Identifier;
+import io.github.pulsebeat02.ezmediacore.callback.StagedCallback;
+import io.github.pulsebeat02.ezmediacore.callback.Viewers;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
+import io.github.pulsebeat02.ezmediacore.player.MediaPlayer;
+import io.github.pulsebeat02.ezmediacore.player.MrlConfiguration;
+import io.github.pulsebeat02.ezmediacore.player.SoundKey;
+import io.github.pulsebeat02.ezmediacore.player.VideoBuilder;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+Plays a video which was pre-rendered by the Prerenderer. The MRL is the
+path of the .emcv file, and the callback has to be a staged (map)
+callback, as the frames are already dithered.
+
+There is no video decoding or dithering at all. A single thread parks
+until the next frame is due, rebuilds its colors from the mapped file
+(usually by applying one delta, see PrerenderDecoder) and hands them to
+the callback. If the thread falls behind, it skips ahead to the newest
+frame which is due instead of sending every frame in between. Pausing
+keeps the position, so resuming continues from the same frame, and
+initializing the player at a delay seeks through the seek table.
+
+A thread keeps playing only while it is the current playback thread, and
+decodes under the lock of the decoder, so a thread which is still running
+when playback is restarted can't apply deltas alongside the new one.
+ */
+public final class PrerenderedMediaPlayer extends MediaPlayer {
+
+  private final boolean loop;
+  private volatile PrerenderFile file;
+  private volatile PrerenderDecoder decoder;
+  private volatile Thread thread;
+  private volatile int frame;
+  private volatile long elapsed;
+
+  PrerenderedMediaPlayer(
+      @NotNull final Callback callback,
+      @NotNull final Viewers viewers,
+      @NotNull final Dimension pixelDimension,
+      @NotNull final FrameConfiguration fps,
+      @Nullable final SoundKey key,
+      final boolean loop) {
+    super(callback, viewers, pixelDimension, fps, key);
+    checkArgument(
+        callback instanceof StagedCallback, "Pre-rendered videos require a map callback!");
+    this.loop = loop;
+  }
+
+  @Override
+  public void initializePlayer(
+      @NotNull final MrlConfiguration mrl,
+      @NotNull final DelayConfiguration delay,
+      @NotNull final Object @NotNull ... arguments) {
+    final PrerenderFile file;
+    try {
+      file = PrerenderFile.ofFile(Path.of(mrl.getMrl()));
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+    final Dimension dimension = this.getDimensions();
+    checkArgument(
+        file.getWidth() == dimension.getWidth() && file.getHeight() == dimension.getHeight(),
+        "Pre-rendered video is %sx%s, but the player is %sx%s!",
+        file.getWidth(),
+        file.getHeight(),
+        dimension.getWidth(),
+        dimension.getHeight());
+    this.setDirectVideoMrl(mrl);
+    this.setDirectAudioMrl(mrl);
+    this.file = file;
+    this.decoder = new PrerenderDecoder(file);
+    this.frame = file.findFrame(delay.getDelay());
+    this.elapsed = file.getTimestamp(this.frame);
+  }
+
+  @Override
+  public void start(@NotNull final MrlConfiguration mrl, @NotNull final Object... arguments) {
+    super.start(mrl, arguments);
+    this.stopPlayback();
+    this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
+    this.startPlayback();
+  }
+
+  @Override
+  public void pause() {
+    super.pause();
+    this.stopPlayback();
+    this.stopAudio();
+  }
+
+  @Override
+  public void resume(@NotNull final MrlConfiguration mrl, @NotNull final Object... arguments) {
+    super.resume(mrl, arguments);
+    this.stopPlayback();
+    if (this.file == null) {
+      this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
+    }
+    this.startPlayback();
+  }
+
+  @Override
+  public void release() {
+    super.release();
+    this.stopPlayback();
+    this.stopAudio();
+    this.file = null;
+    this.decoder = null;
+  }
+
+  private synchronized void startPlayback() {
+    this.playAudio();
+    final Thread thread = new Thread(this::play, "EzMediaCore Prerender Player");
+    thread.setDaemon(true);
+    this.thread = thread;
+    thread.start();
+  }
+
+  private synchronized void stopPlayback() {
+    final Thread thread = this.thread;
+    if (thread != null) {
+      thread.interrupt();
+      this.thread = null;
+    }
+  }
+
+  private void play() {
+    final PrerenderFile file = this.file;
+    final PrerenderDecoder decoder = this.decoder;
+    final StagedCallback callback = (StagedCallback) this.getCallback();
+    final int count = file.getFrameCount();
+    long origin = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(this.elapsed);
+    final Thread current = Thread.currentThread();
+    int frame = this.frame;
+    while (this.thread == current) {
+      if (frame >= count) {
+        if (!this.loop) {
+          return;
+        }
+        origin += TimeUnit.MILLISECONDS.toNanos(file.getDuration());
+        frame = 0;
+        this.playAudio();
+      }
+      if (!this.parkUntil(origin + TimeUnit.MILLISECONDS.toNanos(file.getTimestamp(frame)))) {
+        return;
+      }
+      final long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - origin);
+      frame = Math.max(frame, Math.min(count - 1, file.findFrame(time)));
+      synchronized (decoder) {
+        if (this.thread != current) {
+          return;
+        }
+        callback.processPrepared(decoder.decode(frame));
+      }
+      this.elapsed = file.getTimestamp(frame);
+      this.frame = ++frame;
+    }
+  }
+
+  private boolean parkUntil(final long due) {
+    final Thread current = Thread.currentThread();
+    long remaining;
+    while ((remaining = due - System.nanoTime()) > 0) {
+      if (this.thread != current || Thread.interrupted()) {
+        return false;
+      }
+      LockSupport.parkNanos(this, remaining);
+    }
+    return this.thread == current;
+  }
+
+  @Override
+  public long getElapsedMilliseconds() {
+    return this.elapsed;
+  }
+
+  @Override
+  public @NotNull Identifier<String> getPlayerType() {
+    return MediaPlayer.PRERENDERED;
+  }
+
+  @Override
+  public boolean isBuffered() {
+    return false;
+  }
+
+  public boolean isLooping() {
+    return this.loop;
+  }
+
+  public static final class Builder extends VideoBuilder {
+
+    private boolean loop;
+
+    public Builder() {}
+
+    @Contract("_ -> this")
+    @Override
+    public Builder callback(@NotNull final Callback callback) {
+      super.callback(callback);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public Builder frameRate(@NotNull final FrameConfiguration rate) {
+      super.frameRate(rate);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public Builder dims(@NotNull final Dimension dims) {
+      super.dims(dims);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public Builder soundKey(@NotNull final SoundKey key) {
+      super.soundKey(key);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    public @NotNull Builder loop(final boolean loop) {
+      this.loop = loop;
+      return this;
+    }
+
+    @Contract(" -> new")
+    @Override
+    public @NotNull MediaPlayer build() {
+      super.init();
+      final Callback callback = this.getCallback();
+      return new PrerenderedMediaPlayer(
+          callback,
+          callback.getWatchers(),
+          this.getDims(),
+          this.getRate(),
+          this.getKey(),
+          this.loop);
+    }
+  }
+}
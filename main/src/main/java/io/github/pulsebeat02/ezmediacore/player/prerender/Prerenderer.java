@@ -0,0 +1,126 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.kokorin.jaffree.LogLevel;
+import com.github.kokorin.jaffree.StreamType;
+import com.github.kokorin.jaffree.ffmpeg.FFmpeg;
+import com.github.kokorin.jaffree.ffmpeg.PipeOutput;
+import com.github.kokorin.jaffree.ffmpeg.UrlInput;
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
+import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
+import io.github.pulsebeat02.ezmediacore.player.MrlConfiguration;
+import io.github.pulsebeat02.ezmediacore.utility.media.RequestUtils;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+Runs a video through FFmpeg and a dither algorithm once, and stores the
+resulting map colors as a pre-rendered video (see PrerenderFormat). The
+frames are scaled and dithered exactly like the FFmpeg player does while
+playing, so a PrerenderedMediaPlayer showing the file looks the same but
+only has to send the colors.
+ */
+public final class Prerenderer {
+
+  private Prerenderer() {}
+
+  /**
+   * Pre-renders a video for a map callback.
+   *
+   * @param core the library core
+   * @param mrl the video to pre-render
+   * @param output the file to write, usually ending with .emcv
+   * @param dimension the size of the video in pixels, the same as the player dimensions
+   * @param fps the frame rate to sample the video at
+   * @param algorithm the dither algorithm to use, the same as the map callback's
+   * @return a future completed with the output once the file is written
+   */
+  public static @NotNull CompletableFuture<Path> prerender(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final MrlConfiguration mrl,
+      @NotNull final Path output,
+      @NotNull final Dimension dimension,
+      @NotNull final FrameConfiguration fps,
+      @NotNull final DitherAlgorithm algorithm) {
+    checkNotNull(core, "MediaLibraryCore cannot be null!");
+    checkNotNull(mrl, "MRL cannot be null!");
+    checkNotNull(output, "Output cannot be null!");
+    checkNotNull(dimension, "Dimension cannot be null!");
+    checkNotNull(algorithm, "Dither algorithm cannot be null!");
+    checkArgument(fps.getFps() > 0, "Frame rate must be specified!");
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return encode(core, mrl, output, dimension, fps.getFps(), algorithm);
+          } catch (final IOException e) {
+            throw new AssertionError(e);
+          }
+        },
+        ExecutorProvider.ENCODER_HANDLER);
+  }
+
+  private static @NotNull Path encode(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final MrlConfiguration mrl,
+      @NotNull final Path output,
+      @NotNull final Dimension dimension,
+      final int fps,
+      @NotNull final DitherAlgorithm algorithm)
+      throws IOException {
+    final int width = dimension.getWidth();
+    final int height = dimension.getHeight();
+    final String url = RequestUtils.getVideoURLs(mrl).get(0).getMrl();
+    final Path path = Path.of(url);
+    try (final PrerenderWriter writer = PrerenderWriter.ofWriter(output, width, height, fps)) {
+      new FFmpeg(core.getFFmpegPath().toAbsolutePath())
+          .addInput(Files.exists(path) ? UrlInput.fromPath(path) : UrlInput.fromUrl(url))
+          .addArguments("-vf", "scale=%s:%s".formatted(width, height))
+          .addOutput(
+              PipeOutput.pumpTo(
+                      new PrerenderOutputStream(writer, algorithm, width, height, fps))
+                  .setFormat("rawvideo")
+                  .setFrameRate(fps)
+                  .addArguments("-pix_fmt", "bgra")
+                  .disableStream(StreamType.AUDIO)
+                  .disableStream(StreamType.SUBTITLE)
+                  .disableStream(StreamType.DATA))
+          .setLogLevel(LogLevel.FATAL)
+          .setOutputListener(line -> core.getLogger().ffmpegPlayer(line))
+          .execute();
+      writer.finish();
+    }
+    return output;
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.shared;
+
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.callback.DelayConfiguration;
+import io.github.pulsebeat02.ezmediacore.callback.FrameCallback;
+import io.github.pulsebeat02.ezmediacore.callback.Viewers;
+import io.github.pulsebeat02.ezmediacore.callback.implementation.MapCallbackDispatcher;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.player.PlayerControls;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+The callback of a shared decoder. It forwards every decoded frame to all
+subscribed callbacks.
+
+Map callbacks with the same dither algorithm, block width and dimensions
+would all compute the same map colors, so they are grouped: the frame is
+dithered once per group and the result is handed to every member through
+StagedCallback#processPrepared. Every other callback gets the raw frame.
+
+Subscribers are stored in immutable snapshots which are replaced on every
+change, so the decoder thread can iterate over them without locking.
+
+The last state change of the player is remembered. A callback which joins
+a running player is sent START (and PAUSE, if the player is paused), and
+a callback which leaves is sent RELEASE once it no longer gets frames, so
+every subscriber sets up and tears down its screen like it would with a
+player of its own.
+ */
+final class FanOutCallback extends FrameCallback {
+
+  private volatile Snapshot snapshot;
+  private PlayerControls state;
+
+  FanOutCallback(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final Viewers viewers,
+      @NotNull final Dimension dimension) {
+    super(core, viewers, dimension, DelayConfiguration.DELAY_0_MS);
+    this.snapshot = new Snapshot(List.of(), List.of());
+  }
+
+  @Override
+  public void process(final int[] data) {
+    final Snapshot snapshot = this.snapshot;
+    for (final DitherGroup group : snapshot.groups()) {
+      group.process(data);
+    }
+    for (final Callback callback : snapshot.callbacks()) {
+      callback.process(data);
+    }
+  }
+
+  @Override
+  public synchronized void preparePlayerStateChange(@NotNull final PlayerControls status) {
+    this.state = status;
+    for (final Callback callback : this.getSubscribers()) {
+      callback.preparePlayerStateChange(status);
+    }
+  }
+
+  synchronized void subscribe(@NotNull final Callback callback) {
+    final List<Callback> subscribers = this.getSubscribers();
+    subscribers.add(callback);
+    this.snapshot = createSnapshot(subscribers);
+    if (this.isPlaying()) {
+      callback.preparePlayerStateChange(PlayerControls.START);
+      if (this.state == PlayerControls.PAUSE) {
+        callback.preparePlayerStateChange(PlayerControls.PAUSE);
+      }
+    }
+  }
+
+  synchronized int unsubscribe(@NotNull final Callback callback) {
+    final List<Callback> subscribers = this.getSubscribers();
+    if (subscribers.remove(callback)) {
+      this.snapshot = createSnapshot(subscribers);
+      if (this.isPlaying()) {
+        callback.preparePlayerStateChange(PlayerControls.RELEASE);
+      }
+    }
+    return subscribers.size();
+  }
+
+  private boolean isPlaying() {
+    return this.state != null && this.state != PlayerControls.RELEASE;
+  }
+
+  @NotNull
+  Viewers getAllViewers() {
+    final Set<UUID> viewers = new LinkedHashSet<>();
+    for (final Callback callback : this.getSubscribers()) {
+      viewers.addAll(List.of(callback.getWatchers().getViewers()));
+    }
+    return Viewers.ofUUIDs(viewers);
+  }
+
+  private @NotNull List<Callback> getSubscribers() {
+    final Snapshot snapshot = this.snapshot;
+    final List<Callback> subscribers = new ArrayList<>(snapshot.callbacks());
+    for (final DitherGroup group : snapshot.groups()) {
+      subscribers.addAll(group.members());
+    }
+    return subscribers;
+  }
+
+  private static @NotNull Snapshot createSnapshot(@NotNull final List<Callback> subscribers) {
+    final List<DitherGroup> groups = new ArrayList<>();
+    final List<Callback> callbacks = new ArrayList<>();
+    for (final Callback callback : subscribers) {
+      if (callback instanceof MapCallbackDispatcher) {
+        addToGroup(groups, (MapCallbackDispatcher) callback);
+      } else {
+        callbacks.add(callback);
+      }
+    }
+    return new Snapshot(List.copyOf(groups), List.copyOf(callbacks));
+  }
+
+  private static void addToGroup(
+      @NotNull final List<DitherGroup> groups, @NotNull final MapCallbackDispatcher callback) {
+    for (int i = 0; i < groups.size(); i++) {
+      final DitherGroup group = groups.get(i);
+      if (group.accepts(callback)) {
+        final List<MapCallbackDispatcher> members = new ArrayList<>(group.members());
+        members.add(callback);
+        groups.set(i, new DitherGroup(callback.getAlgorithm(), List.copyOf(members)));
+        return;
+      }
+    }
+    groups.add(new DitherGroup(callback.getAlgorithm(), List.of(callback)));
+  }
+
+  private record Snapshot(
+      @NotNull List<DitherGroup> groups, @NotNull List<Callback> callbacks) {}
+
+  private static final class DitherGroup {
+
+    private final DitherAlgorithm algorithm;
+    private final List<MapCallbackDispatcher> members;
+    private final int width;
+    private ByteBufCarrier output;
+
+    DitherGroup(
+        @NotNull final DitherAlgorithm algorithm,
+        @NotNull final List<MapCallbackDispatcher> members) {
+      this.algorithm = algorithm;
+      this.members = members;
+      this.width = members.get(0).getBlockWidth();
+    }
+
+    boolean accepts(@NotNull final MapCallbackDispatcher callback) {
+      final Dimension dimension = this.members.get(0).getDimensions();
+      final Dimension other = callback.getDimensions();
+      return callback.getAlgorithm() == this.algorithm
+          && callback.getBlockWidth() == this.width
+          && other.getWidth() == dimension.getWidth()
+          && other.getHeight() == dimension.getHeight();
+    }
+
+    void process(final int @NotNull [] data) {
+      ByteBufCarrier output = this.output;
+      if (output == null || output.getCapacity() != data.length) {
+        output = ByteBufCarrier.ofByteBufCarrier(data.length);
+        this.output = output;
+      }
+      this.algorithm.ditherInto(data, this.width, output.getNioBuffer());
+      for (final MapCallbackDispatcher member : this.members) {
+        member.processPrepared(output);
+      }
+    }
+
+    @NotNull
+    List<MapCallbackDispatcher> members() {
+      return this.members;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.shared;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.player.MediaPlayer;
+import io.github.pulsebeat02.ezmediacore.player.MrlConfiguration;
+import io.github.pulsebeat02.ezmediacore.player.VideoBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.NotNull;
+
+/*
+
+One decoder shared by every callback which plays the same MRL with the same
+player type, output dimensions and frame rate.
+
+The first subscriber builds and starts the player, with a FanOutCallback as
+its callback. Later subscribers are added to the running fan-out and start
+receiving frames from the current position, without starting another
+FFmpeg or VLC process. Sources are reference counted: the player is
+released once the last subscription is closed.
+
+Starting a player can take seconds (resolving the MRL and buffering the
+first frames), so it happens outside of the lock on the sources, on the
+thread of the first subscriber. Changes to the player which other
+subscribers make in the meantime are chained onto the start instead.
+
+Audio is started once for the viewers known at that time, as the resource
+pack sound cannot be joined halfway through. Late joiners are added to the
+player's viewers, so they hear the next playback.
+ */
+public final class SharedSource {
+
+  private static final Map<SharedSourceKey, SharedSource> SOURCES;
+
+  static {
+    SOURCES = new HashMap<>();
+  }
+
+  private final SharedSourceKey key;
+  private final FanOutCallback callback;
+  private final MediaPlayer player;
+  private final CompletableFuture<Void> started;
+
+  SharedSource(
+      @NotNull final SharedSourceKey key,
+      @NotNull final VideoBuilder builder,
+      @NotNull final Callback first) {
+    this.key = key;
+    this.callback = new FanOutCallback(first.getCore(), first.getWatchers(), builder.getDims());
+    this.callback.subscribe(first);
+    this.player = builder.callback(this.callback).build();
+    this.started = new CompletableFuture<>();
+  }
+
+  /**
+   * Subscribes a callback to the shared source for the specified MRL, starting the source with the
+   * player described by the builder if nobody is playing it yet. The builder's callback is replaced
+   * by the fan-out callback of the source.
+   *
+   * @param builder the builder of the player to decode with
+   * @param mrl the media to play
+   * @param callback the callback to send the frames to
+   * @param arguments the arguments to start the player with, if it isn't running yet
+   * @return the subscription, which has to be closed once the callback stops watching
+   */
+  public static @NotNull SharedSubscription subscribe(
+      @NotNull final VideoBuilder builder,
+      @NotNull final MrlConfiguration mrl,
+      @NotNull final Callback callback,
+      @NotNull final Object... arguments) {
+    checkNotNull(builder, "Video builder cannot be null!");
+    checkNotNull(mrl, "MRL cannot be null!");
+    checkNotNull(callback, "Callback cannot be null!");
+    final SharedSourceKey key = SharedSourceKey.ofKey(mrl, builder);
+    final SharedSource source;
+    synchronized (SOURCES) {
+      final SharedSource existing = SOURCES.get(key);
+      if (existing != null) {
+        existing.callback.subscribe(callback);
+        existing.updateViewers();
+        return new SharedSubscription(existing, callback);
+      }
+      source = new SharedSource(key, builder, callback);
+      SOURCES.put(key, source);
+    }
+    source.start(mrl, arguments);
+    return new SharedSubscription(source, callback);
+  }
+
+  private void start(@NotNull final MrlConfiguration mrl, @NotNull final Object... arguments) {
+    try {
+      this.player.start(mrl, arguments);
+    } catch (final RuntimeException e) {
+      synchronized (SOURCES) {
+        SOURCES.remove(this.key, this);
+      }
+      this.started.completeExceptionally(e);
+      throw e;
+    }
+    this.started.complete(null);
+  }
+
+  private void updateViewers() {
+    this.started.thenRun(() -> this.player.setViewers(this.callback.getAllViewers()));
+  }
+
+  public static int getSourceCount() {
+    synchronized (SOURCES) {
+      return SOURCES.size();
+    }
+  }
+
+  void unsubscribe(@NotNull final Callback callback) {
+    synchronized (SOURCES) {
+      if (this.callback.unsubscribe(callback) > 0) {
+        this.updateViewers();
+        return;
+      }
+      if (SOURCES.remove(this.key, this)) {
+        this.started.whenComplete((result, throwable) -> this.player.release());
+      }
+    }
+  }
+
+  public @NotNull MediaPlayer getPlayer() {
+    return this.player;
+  }
+}
@@ -221,9 +221,13 @@ public final class VideoFrameUtils {
   }
 
   public static int @NotNull [] getRGBParallel(@NotNull final BufferedImage image) {
+    return getRGBParallel(image, new int[image.getWidth() * image.getHeight()]);
+  }
+
+  public static int @NotNull [] getRGBParallel(
+      @NotNull final BufferedImage image, final int @NotNull [] rgb) {
     final int width = image.getWidth();
     final int height = image.getHeight();
-    final int[] rgb = new int[width * height];
     final int num = width >> 5;
     IntStream.range(0, num + ((width & 31) == 0 ? 0 : 1))
         .parallel()
@@ -0,0 +1,78 @@
+package io.github.pulsebeat02.ezmediacore.dither.algorithm;
+
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FILTER_LITE;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FILTER_LITE_PARALLEL;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FLOYD_STEINBERG;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FLOYD_STEINBERG_PARALLEL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import java.util.Random;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public final class ParallelBands {
+
+  private static final int WIDTH;
+  private static final int[] BANDS;
+
+  static {
+    WIDTH = 97;
+    BANDS = new int[] {2, 3, 7, 16};
+    DitherLookupUtil.init();
+  }
+
+  @AfterEach
+  public void reset() {
+    ParallelDiffusion.setBandCount(0);
+  }
+
+  @Test
+  public void filterLiteBands() {
+    this.testBands(FILTER_LITE, FILTER_LITE_PARALLEL);
+  }
+
+  @Test
+  public void floydBands() {
+    this.testBands(FLOYD_STEINBERG, FLOYD_STEINBERG_PARALLEL);
+  }
+
+  private void testBands(
+      @NotNull final DitherAlgorithm expectedAlgorithm, @NotNull final DitherAlgorithm algorithm) {
+    for (final int height : new int[] {1000, 1001}) {
+      final int[] frame = this.createFrame(height);
+      final BufferCarrier expected = expectedAlgorithm.ditherIntoMinecraft(frame, WIDTH);
+      for (final int bands : BANDS) {
+        ParallelDiffusion.setBandCount(bands);
+        final BufferCarrier actual = algorithm.ditherIntoMinecraft(frame, WIDTH);
+        assertEquals(expected.getCapacity(), actual.getCapacity());
+        for (int i = 0; i < expected.getCapacity(); i++) {
+          assertEquals(expected.getByte(i), actual.getByte(i), "%d bands".formatted(bands));
+        }
+      }
+    }
+  }
+
+  /*
+
+  Smooth gradients with some noise, so errors are carried far along the
+  rows and the stitching has to re-run more than a pixel or two.
+
+   */
+  private int @NotNull [] createFrame(final int height) {
+    final Random random = new Random(height);
+    final int[] frame = new int[WIDTH * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        final int red = (x * 255 / WIDTH + random.nextInt(9)) & 0xFF;
+        final int green = (y * 255 / height + random.nextInt(9)) & 0xFF;
+        final int blue = ((x + y) & 0xFF) ^ random.nextInt(4);
+        frame[y * WIDTH + x] = 0xFF000000 | red << 16 | green << 8 | blue;
+      }
+    }
+    return frame;
+  }
+}
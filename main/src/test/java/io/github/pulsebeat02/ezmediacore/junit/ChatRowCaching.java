@@ -0,0 +1,91 @@
+package io.github.pulsebeat02.ezmediacore.junit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.pulsebeat02.ezmediacore.utility.graphics.ChatRowCache;
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+public final class ChatRowCaching {
+
+  private static final int WIDTH;
+  private static final int HEIGHT;
+
+  static {
+    WIDTH = 16;
+    HEIGHT = 4;
+  }
+
+  @Test
+  public void rowFormat() {
+    final StringBuilder builder = new StringBuilder();
+    final IntBuffer data = IntBuffer.wrap(new int[] {0, 0xFFFF0000, 0xFF0000, 0x00A1B2});
+    ChatRowCache.appendRow(builder, "#", data, 1, 3);
+    assertEquals(
+        "&x&f&f&0&0&0&0##&x&0&0&a&1&b&2#".replace('&', '\u00A7'), builder.toString());
+  }
+
+  @Test
+  public void changedRows() {
+    final AtomicInteger encoded = new AtomicInteger();
+    final ChatRowCache<String> cache = this.createCache(encoded);
+    final int[] pixels = this.createFrame();
+    final List<String> rows = cache.update(null, IntBuffer.wrap(pixels), "#", WIDTH, HEIGHT);
+    assertNotNull(rows);
+    assertEquals(HEIGHT, rows.size());
+    assertEquals(HEIGHT, encoded.get());
+    assertNull(cache.update(null, IntBuffer.wrap(pixels), "#", WIDTH, HEIGHT));
+    pixels[2 * WIDTH + 7] = 0x123456;
+    final List<String> changed = cache.update(null, IntBuffer.wrap(pixels), "#", WIDTH, HEIGHT);
+    assertNotNull(changed);
+    assertEquals(HEIGHT + 1, encoded.get());
+    for (int y = 0; y < HEIGHT; y++) {
+      if (y != 2) {
+        assertSame(rows.get(y), changed.get(y));
+      }
+    }
+    final StringBuilder builder = new StringBuilder();
+    ChatRowCache.appendRow(builder, "#", IntBuffer.wrap(pixels), 2 * WIDTH, WIDTH);
+    assertEquals(builder.toString(), changed.get(2));
+  }
+
+  @Test
+  public void fullUpdates() {
+    final AtomicInteger encoded = new AtomicInteger();
+    final ChatRowCache<String> cache = this.createCache(encoded);
+    final int[] pixels = this.createFrame();
+    cache.update(null, IntBuffer.wrap(pixels), "#", WIDTH, HEIGHT);
+    cache.invalidate();
+    assertNotNull(cache.update(null, IntBuffer.wrap(pixels), "#", WIDTH, HEIGHT));
+    assertEquals(HEIGHT * 2, encoded.get());
+    final UUID[] viewers = {UUID.randomUUID()};
+    assertNotNull(cache.update(viewers, IntBuffer.wrap(pixels), "#", WIDTH, HEIGHT));
+    assertEquals(HEIGHT * 3, encoded.get());
+    assertNotNull(cache.update(viewers, IntBuffer.wrap(pixels), "@", WIDTH, HEIGHT));
+    assertEquals(HEIGHT * 4, encoded.get());
+    assertNull(cache.update(viewers.clone(), IntBuffer.wrap(pixels), "@", WIDTH, HEIGHT));
+  }
+
+  private @NotNull ChatRowCache<String> createCache(@NotNull final AtomicInteger encoded) {
+    return new ChatRowCache<>(
+        row -> {
+          encoded.incrementAndGet();
+          return row;
+        });
+  }
+
+  private int @NotNull [] createFrame() {
+    final int[] pixels = new int[WIDTH * HEIGHT];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = (i / 3) * 0x010203;
+    }
+    return pixels;
+  }
+}
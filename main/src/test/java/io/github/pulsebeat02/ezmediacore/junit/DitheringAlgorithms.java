@@ -1,16 +1,23 @@
 package io.github.pulsebeat02.ezmediacore.junit;
 
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FILTER_LITE;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FILTER_LITE_NATIVE;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FILTER_LITE_PARALLEL;
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FLOYD_STEINBERG;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.FLOYD_STEINBERG_PARALLEL;
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.ORDERED_2X2;
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.ORDERED_4X4;
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.ORDERED_8X8;
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.RANDOM;
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.Algorithm.SIMPLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import io.github.pulsebeat02.ezmediacore.natives.NativeDitherBuffer;
 import io.github.pulsebeat02.ezmediacore.utility.graphics.VideoFrameUtils;
 import java.io.IOException;
 import java.net.URL;
@@ -46,6 +53,21 @@ public final class DitheringAlgorithms {
     this.testDither(FLOYD_STEINBERG);
   }
 
+  @Test
+  public void parallelDither() {
+    this.testMatchingDither(FILTER_LITE, FILTER_LITE_PARALLEL);
+    this.testMatchingDither(FLOYD_STEINBERG, FLOYD_STEINBERG_PARALLEL);
+  }
+
+  @Test
+  public void nativeDither() {
+    assumeTrue(NativeDitherBuffer.isSupported());
+    this.testMatchingDither(FILTER_LITE, FILTER_LITE_NATIVE);
+    this.testMatchingDither(FILTER_LITE, FILTER_LITE_NATIVE, this.crop(127, 9), 127);
+    this.testMatchingDither(FILTER_LITE, FILTER_LITE_NATIVE, this.crop(3, 2), 3);
+    this.testMatchingDither(FILTER_LITE, FILTER_LITE_NATIVE, this.crop(1, 1), 1);
+  }
+
   @Test
   public void orderedDither() {
     this.testDither(ORDERED_2X2);
@@ -68,4 +90,30 @@ public final class DitheringAlgorithms {
     algorithm.dither(copy, 630);
     assertFalse(Arrays.equals(copy, BUFFER));
   }
+
+  private int @NotNull [] crop(final int width, final int height) {
+    final int[] frame = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(BUFFER, y * 630, frame, y * width, width);
+    }
+    return frame;
+  }
+
+  private void testMatchingDither(
+      @NotNull final DitherAlgorithm expectedAlgorithm, @NotNull final DitherAlgorithm algorithm) {
+    this.testMatchingDither(expectedAlgorithm, algorithm, BUFFER, 630);
+  }
+
+  private void testMatchingDither(
+      @NotNull final DitherAlgorithm expectedAlgorithm,
+      @NotNull final DitherAlgorithm algorithm,
+      final int @NotNull [] buffer,
+      final int width) {
+    final BufferCarrier expected = expectedAlgorithm.ditherIntoMinecraft(buffer, width);
+    final BufferCarrier actual = algorithm.ditherIntoMinecraft(buffer, width);
+    assertEquals(expected.getCapacity(), actual.getCapacity());
+    for (int i = 0; i < expected.getCapacity(); i++) {
+      assertEquals(expected.getByte(i), actual.getByte(i));
+    }
+  }
 }
@@ -0,0 +1,93 @@
+package io.github.pulsebeat02.ezmediacore.junit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapRegionCache;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapRegionCache.Region;
+import java.util.Random;
+import java.util.UUID;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+public final class MapRegionCaching {
+
+  private static final int SIZE;
+
+  static {
+    SIZE = 128;
+  }
+
+  @Test
+  public void unchangedMap() {
+    final MapRegionCache cache = new MapRegionCache();
+    final byte[] data = this.createMap(1);
+    this.assertRegion(cache.update(0, null, data, 0, 0, SIZE, SIZE), 0, 0, SIZE, SIZE, data);
+    assertNull(cache.update(0, null, data.clone(), 0, 0, SIZE, SIZE));
+  }
+
+  @Test
+  public void changedRegion() {
+    final MapRegionCache cache = new MapRegionCache();
+    final byte[] data = this.createMap(2);
+    cache.update(0, null, data, 0, 0, SIZE, SIZE);
+    final byte[] next = data.clone();
+    next[3 * SIZE + 5]++;
+    next[7 * SIZE + 10]++;
+    final byte[] expected = new byte[6 * 5];
+    for (int row = 0; row < 5; row++) {
+      System.arraycopy(next, (3 + row) * SIZE + 5, expected, row * 6, 6);
+    }
+    this.assertRegion(cache.update(0, null, next, 0, 0, SIZE, SIZE), 5, 3, 6, 5, expected);
+    assertNull(cache.update(0, null, next, 0, 0, SIZE, SIZE));
+  }
+
+  @Test
+  public void changedRegionWithOffset() {
+    final MapRegionCache cache = new MapRegionCache();
+    final byte[] data = this.createMap(3);
+    final byte[] partial = new byte[16 * 8];
+    System.arraycopy(data, 0, partial, 0, partial.length);
+    cache.update(0, null, partial, 32, 64, 16, 8);
+    final byte[] next = partial.clone();
+    next[2 * 16 + 15]++;
+    this.assertRegion(
+        cache.update(0, null, next, 32, 64, 16, 8), 47, 66, 1, 1, new byte[] {next[47]});
+  }
+
+  @Test
+  public void keyframes() {
+    final MapRegionCache cache = new MapRegionCache();
+    final byte[] data = this.createMap(4);
+    final UUID[] viewers = {UUID.randomUUID()};
+    cache.update(0, null, data, 0, 0, SIZE, SIZE);
+    this.assertRegion(cache.update(1, null, data, 0, 0, SIZE, SIZE), 0, 0, SIZE, SIZE, data);
+    this.assertRegion(cache.update(0, viewers, data, 0, 0, SIZE, SIZE), 0, 0, SIZE, SIZE, data);
+    assertNull(cache.update(0, viewers.clone(), data, 0, 0, SIZE, SIZE));
+    cache.invalidate();
+    this.assertRegion(cache.update(0, viewers, data, 0, 0, SIZE, SIZE), 0, 0, SIZE, SIZE, data);
+  }
+
+  private byte @NotNull [] createMap(final long seed) {
+    final byte[] data = new byte[SIZE * SIZE];
+    new Random(seed).nextBytes(data);
+    return data;
+  }
+
+  private void assertRegion(
+      final Region region,
+      final int x,
+      final int y,
+      final int width,
+      final int height,
+      final byte @NotNull [] data) {
+    assertNotNull(region);
+    assertEquals(x, region.getX());
+    assertEquals(y, region.getY());
+    assertEquals(width, region.getWidth());
+    assertEquals(height, region.getHeight());
+    assertArrayEquals(data, region.getData());
+  }
+}
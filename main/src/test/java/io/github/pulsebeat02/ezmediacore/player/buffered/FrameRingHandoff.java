@@ -0,0 +1,119 @@
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public final class FrameRingHandoff {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setup() {
+    this.executor = Executors.newCachedThreadPool();
+  }
+
+  @AfterEach
+  public void shutdown() {
+    this.executor.shutdownNow();
+  }
+
+  @Test
+  public void outOfOrderCompletion() throws Exception {
+    final FrameRing ring = new FrameRing(3);
+    final BufferedFrame first = this.publish(ring, 0L, false);
+    final BufferedFrame second = this.publish(ring, 40L, false);
+    ring.complete(second);
+    final Future<BufferedFrame> acquired = this.executor.submit(this.consume(ring));
+    this.assertBlocked(acquired);
+    ring.complete(first);
+    assertSame(first, this.await(acquired));
+    assertSame(second, this.await(this.executor.submit(this.consume(ring))));
+    assertEquals(0, ring.size());
+  }
+
+  @Test
+  public void releaseFromOtherThread() throws Exception {
+    final FrameRing ring = new FrameRing(2);
+    this.publish(ring, 0L, true);
+    assertNotNull(this.await(this.executor.submit(ring::acquire)));
+    ring.release();
+    ring.abort();
+    assertEquals(1, ring.size());
+  }
+
+  @Test
+  public void closeWhileReading() throws Exception {
+    final FrameRing ring = new FrameRing(2);
+    final Future<BufferedFrame> acquired = this.executor.submit(ring::acquire);
+    this.assertBlocked(acquired);
+    ring.close();
+    assertNull(this.await(acquired));
+  }
+
+  @Test
+  public void closeWhileWriting() throws Exception {
+    final FrameRing ring = new FrameRing(1);
+    this.publish(ring, 0L, true);
+    final Future<BufferedFrame> claimed = this.executor.submit(ring::claim);
+    this.assertBlocked(claimed);
+    ring.close();
+    assertNull(this.await(claimed));
+    assertEquals(0, ring.size());
+  }
+
+  @Test
+  public void reopen() throws Exception {
+    final FrameRing ring = new FrameRing(2);
+    assertNotNull(ring.claim());
+    ring.close();
+    assertNull(ring.publish(0L, true));
+    final Future<BufferedFrame> claimed = this.executor.submit(ring::claim);
+    this.assertBlocked(claimed);
+    ring.open();
+    assertNotNull(this.await(claimed));
+    assertNotNull(ring.publish(80L, true));
+    final BufferedFrame front = this.await(this.executor.submit(ring::acquire));
+    assertEquals(80L, front.getTimestamp());
+  }
+
+  private @NotNull BufferedFrame publish(
+      @NotNull final FrameRing ring, final long timestamp, final boolean ready)
+      throws InterruptedException {
+    assertNotNull(ring.claim());
+    final BufferedFrame frame = ring.publish(timestamp, ready);
+    assertNotNull(frame);
+    return frame;
+  }
+
+  private @NotNull Callable<BufferedFrame> consume(@NotNull final FrameRing ring) {
+    return () -> {
+      final BufferedFrame frame = ring.acquire();
+      ring.release();
+      return frame;
+    };
+  }
+
+  private void assertBlocked(@NotNull final Future<?> future) {
+    assertThrows(TimeoutException.class, () -> future.get(100, TimeUnit.MILLISECONDS));
+  }
+
+  private <T> T await(@NotNull final Future<T> future)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    return future.get(1, TimeUnit.SECONDS);
+  }
+}
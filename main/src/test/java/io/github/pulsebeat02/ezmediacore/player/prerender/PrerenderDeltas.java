@@ -0,0 +1,72 @@
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+public final class PrerenderDeltas {
+
+  @Test
+  public void singlePixel() {
+    this.testRoundTrip(1, 1);
+  }
+
+  @Test
+  public void partialMaps() {
+    this.testRoundTrip(129, 257);
+  }
+
+  @Test
+  public void screen() {
+    this.testRoundTrip(640, 384);
+  }
+
+  private void testRoundTrip(final int width, final int height) {
+    final Random random = new Random(width * 31L + height);
+    final byte[] previous = new byte[width * height];
+    random.nextBytes(previous);
+    this.testDelta(previous, this.change(previous, random, 0.01), width, height);
+    this.testDelta(previous, this.change(previous, random, 0.0), width, height);
+    this.testDelta(previous, this.alternate(previous, random), width, height);
+    this.testDelta(previous, this.change(previous, random, 1.0), width, height);
+  }
+
+  private void testDelta(
+      final byte @NotNull [] previous,
+      final byte @NotNull [] current,
+      final int width,
+      final int height) {
+    final ByteBuffer delta =
+        ByteBuffer.allocate(PrerenderCodec.getMaximumDeltaLength(width, height));
+    final byte[] scratch = new byte[PrerenderFormat.MAP_SIZE * PrerenderFormat.MAP_SIZE];
+    final int length =
+        PrerenderCodec.encodeDelta(previous, current, scratch, width, height, delta);
+    assertTrue(length <= delta.capacity());
+    final byte[] frame = previous.clone();
+    PrerenderCodec.applyDelta(delta, 0, frame, width, height);
+    assertArrayEquals(current, frame);
+  }
+
+  private byte @NotNull [] change(
+      final byte @NotNull [] frame, @NotNull final Random random, final double chance) {
+    final byte[] changed = frame.clone();
+    for (int i = 0; i < changed.length; i++) {
+      if (chance >= 1.0 || random.nextDouble() < chance) {
+        changed[i] ^= (byte) (random.nextInt(255) + 1);
+      }
+    }
+    return changed;
+  }
+
+  private byte @NotNull [] alternate(final byte @NotNull [] frame, @NotNull final Random random) {
+    final byte[] changed = frame.clone();
+    for (int i = 0; i < changed.length; i += 2) {
+      changed[i] ^= (byte) (random.nextInt(255) + 1);
+    }
+    return changed;
+  }
+}
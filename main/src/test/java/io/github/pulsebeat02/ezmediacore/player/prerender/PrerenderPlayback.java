@@ -0,0 +1,119 @@
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+public final class PrerenderPlayback {
+
+  private static final int WIDTH;
+  private static final int HEIGHT;
+  private static final int FPS;
+  private static final int INTERVAL;
+  private static final int FRAMES;
+
+  static {
+    WIDTH = 129;
+    HEIGHT = 257;
+    FPS = 20;
+    INTERVAL = 8;
+    FRAMES = 30;
+  }
+
+  @Test
+  public void writeAndSeek() throws IOException {
+    final byte[][] frames = this.createFrames();
+    final Path folder = Files.createTempDirectory("prerender");
+    final Path path = folder.resolve("video.emc");
+    try {
+      try (final PrerenderWriter writer =
+          PrerenderWriter.ofWriter(path, WIDTH, HEIGHT, FPS, INTERVAL)) {
+        for (int i = 0; i < FRAMES; i++) {
+          writer.writeFrame(ByteBuffer.wrap(frames[i]), this.getTimestamp(i));
+        }
+        writer.finish();
+      }
+      final PrerenderFile file = PrerenderFile.ofFile(path);
+      assertEquals(FRAMES, file.getFrameCount());
+      assertEquals(WIDTH, file.getWidth());
+      assertEquals(HEIGHT, file.getHeight());
+      this.testFindFrame(file);
+      this.testKeyframes(file);
+      final PrerenderDecoder decoder = new PrerenderDecoder(file);
+      for (int i = 0; i < FRAMES; i++) {
+        this.assertFrame(frames[i], decoder.decode(i));
+      }
+      for (int i = FRAMES - 1; i >= 0; i--) {
+        this.assertFrame(frames[i], decoder.decode(i));
+      }
+      final Random random = new Random(7);
+      for (int i = 0; i < 50; i++) {
+        final int target = random.nextInt(FRAMES);
+        this.assertFrame(frames[target], decoder.decode(target));
+      }
+    } finally {
+      Files.deleteIfExists(path);
+      Files.deleteIfExists(folder);
+    }
+  }
+
+  private void testFindFrame(@NotNull final PrerenderFile file) {
+    final long interval = 1000L / FPS;
+    for (int i = 0; i < FRAMES; i++) {
+      assertEquals(i, file.findFrame(this.getTimestamp(i)));
+      assertEquals(i, file.findFrame(this.getTimestamp(i) + interval - 1));
+    }
+    for (int i = FRAMES - 1; i >= 0; i--) {
+      assertEquals(i, file.findFrame(this.getTimestamp(i) + interval / 2));
+    }
+    assertEquals(0, file.findFrame(-interval));
+    assertEquals(FRAMES - 1, file.findFrame(file.getDuration() * 2));
+  }
+
+  private void testKeyframes(@NotNull final PrerenderFile file) {
+    for (int i = 0; i < FRAMES; i++) {
+      final int keyframe = file.getKeyframe(i);
+      assertTrue(keyframe <= i && i - keyframe < INTERVAL);
+      assertTrue(file.isKeyframe(keyframe));
+    }
+    assertFalse(file.isKeyframe(1));
+  }
+
+  private void assertFrame(final byte @NotNull [] expected, @NotNull final BufferCarrier actual) {
+    assertEquals(expected.length, actual.getCapacity());
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], actual.getByte(i));
+    }
+  }
+
+  private byte @NotNull [] @NotNull [] createFrames() {
+    final Random random = new Random(FRAMES);
+    final byte[][] frames = new byte[FRAMES][WIDTH * HEIGHT];
+    random.nextBytes(frames[0]);
+    for (int i = 1; i < FRAMES; i++) {
+      if (i % 11 == 0) {
+        random.nextBytes(frames[i]);
+        continue;
+      }
+      frames[i] = frames[i - 1].clone();
+      final int changes = i % 5 == 0 ? 0 : random.nextInt(200);
+      for (int j = 0; j < changes; j++) {
+        frames[i][random.nextInt(frames[i].length)] = (byte) random.nextInt();
+      }
+    }
+    return frames;
+  }
+
+  private long getTimestamp(final int frame) {
+    return frame * 1000L / FPS;
+  }
+}
@@ -1,6 +1,6 @@
 rootProject.name = "ezmediacore"
 
-include("api", "v1_18_R1", "v1_17_R1", "main", "lib", "deluxemediaplugin")
+include("api", "v1_18_R1", "v1_17_R1", "main", "lib", "deluxemediaplugin", "benchmarks")
 
 mapOf(
     "api" to "ezmediacore-api",
@@ -8,7 +8,8 @@ mapOf(
     "v1_17_R1" to "v1_17_R1",
     "main" to "ezmediacore",
     "lib" to "ezmediacore-lib",
-    "deluxemediaplugin" to "deluxemediaplugin"
+    "deluxemediaplugin" to "deluxemediaplugin",
+    "benchmarks" to "ezmediacore-benchmarks"
 ).forEach {
     findProject(it.key)?.name = it.value
 }
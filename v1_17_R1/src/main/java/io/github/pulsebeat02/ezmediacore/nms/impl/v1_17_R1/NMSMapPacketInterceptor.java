@@ -23,83 +23,98 @@
  */
 package io.github.pulsebeat02.ezmediacore.nms.impl.v1_17_R1;
 
-import static io.github.pulsebeat02.ezmediacore.utility.unsafe.UnsafeUtils.setFinalField;
-
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.nms.PacketHandler;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.ChatRowCache;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapRegionCache;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapRegionCache.Region;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapSlicer;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
-import java.lang.reflect.Field;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import net.minecraft.SystemUtils;
 import net.minecraft.network.PacketDataSerializer;
-import net.minecraft.network.chat.ChatComponentText;
-import net.minecraft.network.chat.ChatHexColor;
 import net.minecraft.network.chat.ChatMessageType;
 import net.minecraft.network.chat.IChatBaseComponent;
+import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.PacketPlayOutChat;
 import net.minecraft.network.protocol.game.PacketPlayOutCustomPayload;
 import net.minecraft.network.protocol.game.PacketPlayOutEntityMetadata;
 import net.minecraft.network.protocol.game.PacketPlayOutMap;
-import net.minecraft.network.syncher.DataWatcher;
-import net.minecraft.network.syncher.DataWatcher.Item;
-import net.minecraft.network.syncher.DataWatcherObject;
-import net.minecraft.network.syncher.DataWatcherRegistry;
+import net.minecraft.network.protocol.game.PacketPlayOutScoreboardTeam;
 import net.minecraft.resources.MinecraftKey;
 import net.minecraft.server.network.PlayerConnection;
 import net.minecraft.world.level.saveddata.maps.WorldMap;
-import org.bukkit.craftbukkit.v1_17_R1.entity.CraftEntity;
+import net.minecraft.world.scores.Scoreboard;
+import net.minecraft.world.scores.ScoreboardTeam;
 import org.bukkit.craftbukkit.v1_17_R1.entity.CraftPlayer;
 import org.bukkit.craftbukkit.v1_17_R1.util.CraftChatMessage;
+import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public final class NMSMapPacketInterceptor implements PacketHandler {
 
-  private static final int PACKET_THRESHOLD_MS;
   private static final Set<Object> PACKET_DIFFERENTIATION;
-  private static final Field METADATA_ITEMS;
+  private static final long MAX_PENDING_BYTES;
+  private static final int DEBUG_MARKER_LENGTH;
 
   static {
-    PACKET_THRESHOLD_MS = 0;
+    MAX_PENDING_BYTES = 1 << 20;
+    DEBUG_MARKER_LENGTH = 17;
     PACKET_DIFFERENTIATION = Collections.newSetFromMap(new WeakHashMap<>());
-    try {
-      METADATA_ITEMS = PacketPlayOutEntityMetadata.class.getDeclaredField("b");
-      METADATA_ITEMS.setAccessible(true);
-    } catch (final NoSuchFieldException e) {
-      throw new AssertionError(e);
-    }
   }
 
   private final Map<UUID, Channel> channels;
   private final Map<UUID, PlayerConnection> connections;
-  private final Map<UUID, Long> lastUpdated;
+  private final Map<UUID, Player> players;
   private final Set<Integer> maps;
+  private final MapRegionCache regions;
+  private final Map<Object, ChatRowCache<PacketPlayOutChat[]>> chats;
+  private final EntityNameRenderer names;
+  private final VirtualEntityTracker virtual;
+  private final Scoreboard scoreboard;
+  private final PacketBroadcaster broadcaster;
+  private final Map<Integer, Set<UUID>> behind;
+  private final Map<UUID, Long> dropped;
   private final MinecraftKey debugMarker;
   private final String handlerName;
 
   public NMSMapPacketInterceptor() {
     this.channels = new ConcurrentHashMap<>();
     this.connections = new ConcurrentHashMap<>();
-    this.lastUpdated = new ConcurrentHashMap<>();
+    this.players = new ConcurrentHashMap<>();
     this.maps = new TreeSet<>();
+    this.regions = new MapRegionCache();
+    this.chats = Collections.synchronizedMap(new WeakHashMap<>());
+    this.names = new EntityNameRenderer();
+    this.virtual = new VirtualEntityTracker();
+    this.scoreboard = new Scoreboard();
+    this.behind = new ConcurrentHashMap<>();
+    this.dropped = new ConcurrentHashMap<>();
     this.debugMarker = new MinecraftKey("debug/game_test_add_marker");
     this.handlerName = "ezmediacore_handler_1171";
+    this.broadcaster = new PacketBroadcaster(this.handlerName);
   }
 
   @Override
@@ -110,10 +125,8 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       final int z,
       final int color,
       final int time) {
-    final ByteBuf buf = Unpooled.buffer();
-    buf.writeLong(((long) x & 67108863L) << 38 | (long) y & 4095L | ((long) z & 67108863L) << 12);
-    buf.writeInt(color);
-    buf.writeInt(time);
+    final ByteBuf buf = Unpooled.buffer(DEBUG_MARKER_LENGTH);
+    writeDebugMarker(buf, x, y, z, color, time);
     final PacketPlayOutCustomPayload packet =
         new PacketPlayOutCustomPayload(this.debugMarker, new PacketDataSerializer(buf));
     for (final UUID uuid : viewers) {
@@ -121,6 +134,53 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
     }
   }
 
+  @Override
+  public void displayDebugMarkers(
+      final UUID[] viewers,
+      final int @NotNull [] x,
+      final int @NotNull [] y,
+      final int @NotNull [] z,
+      final int @NotNull [] colors,
+      final int count,
+      final int time) {
+    if (count == 0) {
+      return;
+    }
+    final ByteBuf buf = Unpooled.buffer(count * DEBUG_MARKER_LENGTH);
+    final Packet<?>[] packets = new Packet<?>[count];
+    for (int i = 0; i < count; i++) {
+      final int offset = buf.writerIndex();
+      writeDebugMarker(buf, x[i], y[i], z[i], colors[i], time);
+      packets[i] =
+          new PacketPlayOutCustomPayload(
+              this.debugMarker,
+              new PacketDataSerializer(buf.slice(offset, DEBUG_MARKER_LENGTH)));
+    }
+    final Collection<UUID> targets =
+        viewers == null ? this.connections.keySet() : Arrays.asList(viewers);
+    this.broadcastPackets(targets, packets);
+  }
+
+  /*
+
+  The payload is the packed block position, the color, the text shown
+  above the marker (always empty, written as a single zero length byte)
+  and the time the marker stays for.
+
+   */
+  private static void writeDebugMarker(
+      @NotNull final ByteBuf buf,
+      final int x,
+      final int y,
+      final int z,
+      final int color,
+      final int time) {
+    buf.writeLong(((long) x & 67108863L) << 38 | (long) y & 4095L | ((long) z & 67108863L) << 12);
+    buf.writeInt(color);
+    buf.writeByte(0);
+    buf.writeInt(time);
+  }
+
   @Override
   public void displayMaps(
       final UUID[] viewers,
@@ -138,9 +198,13 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
     final int yLoopMin = Math.max(0, yOff / 128);
     final int xLoopMax = Math.min(width, (int) Math.ceil(negXOff / 128.0));
     final int yLoopMax = Math.min(height, (int) Math.ceil(negYOff / 128.0));
-    final PacketPlayOutMap[] packetArray =
-        new PacketPlayOutMap[(xLoopMax - xLoopMin) * (yLoopMax - yLoopMin)];
+    final int count = (xLoopMax - xLoopMin) * (yLoopMax - yLoopMin);
+    final Set<UUID> lagging =
+        this.behind.computeIfAbsent(map, key -> ConcurrentHashMap.newKeySet());
+    final PacketPlayOutMap[] packetArray = new PacketPlayOutMap[count];
+    final PacketPlayOutMap[] keyframeArray = lagging.isEmpty() ? null : new PacketPlayOutMap[count];
     int arrIndex = 0;
+    int keyIndex = 0;
     for (int y = yLoopMin; y < yLoopMax; y++) {
       final int relY = y << 7;
       final int topY = Math.max(0, yOff - relY);
@@ -149,56 +213,220 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
         final int relX = x << 7;
         final int topX = Math.max(0, xOff - relX);
         final int xDiff = Math.min(128 - topX, negXOff - (relX + topX));
-        final int xPixMax = xDiff + topX;
-        final int yPixMax = yDiff + topY;
         final byte[] mapData = new byte[xDiff * yDiff];
-        for (int iy = topY; iy < yPixMax; iy++) {
-          final int yPos = relY + iy;
-          final int indexY = (yPos - yOff) * videoWidth;
-          for (int ix = topX; ix < xPixMax; ix++) {
-            mapData[(iy - topY) * xDiff + ix - topX] = rgb.getByte(indexY + relX + ix - xOff);
-          }
-        }
+        MapSlicer.slice(
+            rgb, mapData, videoWidth, xOff, yOff, relX, relY, topX, topY, xDiff, yDiff);
         final int mapId = map + width * y + x;
-        final PacketPlayOutMap packet =
-            new PacketPlayOutMap(
-                mapId,
-                (byte) 0,
-                false,
-                new ArrayList<>(),
-                new WorldMap.b(topX, topY, xDiff, yDiff, mapData));
-        packetArray[arrIndex++] = packet;
-        PACKET_DIFFERENTIATION.add(packet);
+        if (keyframeArray != null) {
+          keyframeArray[keyIndex++] =
+              this.createMapPacket(mapId, topX, topY, xDiff, yDiff, mapData);
+        }
+        final Region region =
+            this.regions.update(mapId, viewers, mapData, topX, topY, xDiff, yDiff);
+        if (region != null) {
+          packetArray[arrIndex++] =
+              this.createMapPacket(
+                  mapId,
+                  region.getX(),
+                  region.getY(),
+                  region.getWidth(),
+                  region.getHeight(),
+                  region.getData());
+        }
       }
     }
-    if (viewers == null) {
-      for (final UUID uuid : this.connections.keySet()) {
-        this.sendMapPacketsToViewers(uuid, packetArray);
-      }
-    } else {
-      for (final UUID uuid : viewers) {
-        this.sendMapPacketsToViewers(uuid, packetArray);
+    final Collection<UUID> targets =
+        viewers == null ? this.connections.keySet() : Arrays.asList(viewers);
+    this.broadcastMapPackets(targets, lagging, packetArray, arrIndex, keyframeArray, keyIndex);
+  }
+
+  @NotNull
+  private PacketPlayOutMap createMapPacket(
+      final int mapId,
+      final int x,
+      final int y,
+      final int width,
+      final int height,
+      final byte @NotNull [] data) {
+    final PacketPlayOutMap packet =
+        new PacketPlayOutMap(
+            mapId, (byte) 0, false, new ArrayList<>(), new WorldMap.b(x, y, width, height, data));
+    PACKET_DIFFERENTIATION.add(packet);
+    return packet;
+  }
+
+  /*
+
+  Viewers whose connection can't take more data skip the frame and are
+  remembered as lagging behind on this screen. Everyone else is only sent
+  the changed regions, so a viewer who skipped a frame is sent the whole
+  screen once they catch up, which always shows them the newest frame.
+
+   */
+  private void broadcastMapPackets(
+      @NotNull final Collection<UUID> viewers,
+      @NotNull final Set<UUID> lagging,
+      @NotNull final PacketPlayOutMap[] packetArray,
+      final int count,
+      @NotNull final PacketPlayOutMap @Nullable [] keyframeArray,
+      final int keyCount) {
+    final List<UUID> current = new ArrayList<>(viewers.size());
+    final List<UUID> recovering = new ArrayList<>();
+    for (final UUID uuid : viewers) {
+      final Channel channel = this.channels.get(uuid);
+      if (channel != null && !this.isWritable(channel)) {
+        lagging.add(uuid);
+        this.dropped.merge(uuid, 1L, Long::sum);
+      } else if (keyframeArray != null && lagging.remove(uuid)) {
+        recovering.add(uuid);
+      } else {
+        current.add(uuid);
       }
     }
+    this.broadcastPackets(current, packetArray, count);
+    if (keyframeArray != null) {
+      this.broadcastPackets(recovering, keyframeArray, keyCount);
+    }
+  }
+
+  private boolean isWritable(@NotNull final Channel channel) {
+    if (!channel.isWritable()) {
+      return false;
+    }
+    final ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+    return buffer == null || buffer.totalPendingWriteBytes() < MAX_PENDING_BYTES;
+  }
+
+  @Override
+  public long getDroppedFrames(@NotNull final UUID viewer) {
+    return this.dropped.getOrDefault(viewer, 0L);
+  }
+
+  @Override
+  public void releaseMaps(final int map) {
+    this.behind.remove(map);
+  }
+
+  /*
+
+  Once the regions are invalidated every viewer is sent the whole screen
+  anyway, so nobody has to be remembered as lagging behind any longer.
+
+   */
+  private void invalidateMaps() {
+    this.regions.invalidate();
+    this.behind.clear();
   }
 
   @Override
   public void displayChat(
+      @NotNull final Object screen,
       final UUID[] viewers,
       @NotNull final IntBuffer data,
       final String character,
       final int width,
       final int height) {
-    for (int y = 0; y < height; ++y) {
-      for (final UUID uuid : viewers) {
-        final PlayerConnection connection = this.connections.get(uuid);
-        final IChatBaseComponent[] base =
-            CraftChatMessage.fromString(this.createChatComponent(character, data, width, y));
-        for (final IChatBaseComponent component : base) {
-          connection.sendPacket(new PacketPlayOutChat(component, ChatMessageType.b, SystemUtils.b));
-        }
+    final ChatRowCache<PacketPlayOutChat[]> chat =
+        this.chats.computeIfAbsent(screen, key -> new ChatRowCache<>(this::createChatPackets));
+    final List<PacketPlayOutChat[]> rows = chat.update(viewers, data, character, width, height);
+    if (rows == null) {
+      return;
+    }
+    final List<PacketPlayOutChat> packets = new ArrayList<>(rows.size());
+    for (final PacketPlayOutChat[] row : rows) {
+      packets.addAll(Arrays.asList(row));
+    }
+    final Collection<UUID> targets =
+        viewers == null ? this.connections.keySet() : Arrays.asList(viewers);
+    this.broadcastPackets(targets, packets.toArray(new PacketPlayOutChat[0]));
+  }
+
+  private void invalidateChats() {
+    synchronized (this.chats) {
+      this.chats.values().forEach(ChatRowCache::invalidate);
+    }
+  }
+
+  private @NotNull PacketPlayOutChat @NotNull [] createChatPackets(@NotNull final String row) {
+    final IChatBaseComponent[] components = CraftChatMessage.fromString(row);
+    final PacketPlayOutChat[] packets = new PacketPlayOutChat[components.length];
+    for (int i = 0; i < components.length; i++) {
+      packets[i] = new PacketPlayOutChat(components[i], ChatMessageType.b, SystemUtils.b);
+    }
+    return packets;
+  }
+
+  private void broadcastPackets(
+      @NotNull final Collection<UUID> viewers, @NotNull final Packet<?> @NotNull [] packets) {
+    this.broadcastPackets(viewers, packets, packets.length);
+  }
+
+  /*
+
+  The packets are encoded once for every viewer with a stock pipeline. The
+  interceptor still sees each packet first, and a viewer whose packets it
+  changes is written the changed packets on their own. Viewers with foreign
+  handlers in their pipeline are sent the packets through their connection.
+
+   */
+  private void broadcastPackets(
+      @NotNull final Collection<UUID> viewers,
+      @NotNull final Packet<?> @NotNull [] packets,
+      final int count) {
+    if (count == 0) {
+      return;
+    }
+    final List<UUID> direct = new ArrayList<>();
+    final List<UUID> shared = new ArrayList<>(viewers.size());
+    final List<Channel> channels = new ArrayList<>(viewers.size());
+    for (final UUID uuid : viewers) {
+      final Channel channel = this.channels.get(uuid);
+      if (channel == null || !this.broadcaster.isVanilla(channel)) {
+        direct.add(uuid);
+      } else if (!this.writeIntercepted(channel, packets, count)) {
+        shared.add(uuid);
+        channels.add(channel);
       }
     }
+    if (!channels.isEmpty() && !this.broadcaster.broadcast(channels, packets, count)) {
+      direct.addAll(shared);
+    }
+    for (final UUID uuid : direct) {
+      final PlayerConnection connection = this.connections.get(uuid);
+      for (int i = 0; i < count; i++) {
+        connection.sendPacket(packets[i]);
+      }
+    }
+  }
+
+  private boolean writeIntercepted(
+      @NotNull final Channel channel, @NotNull final Packet<?>[] packets, final int count) {
+    final ChannelHandlerContext context = channel.pipeline().context(this.handlerName);
+    if (context == null || !(context.handler() instanceof PacketInterceptor)) {
+      return false;
+    }
+    final Player player = ((PacketInterceptor) context.handler()).player;
+    Object[] intercepted = null;
+    for (int i = 0; i < count; i++) {
+      final Object packet = this.onPacketInterceptOut(player, packets[i]);
+      if (intercepted == null && packet != packets[i]) {
+        intercepted = new Object[count];
+        System.arraycopy(packets, 0, intercepted, 0, i);
+      }
+      if (intercepted != null) {
+        intercepted[i] = packet;
+      }
+    }
+    if (intercepted == null) {
+      return false;
+    }
+    for (final Object packet : intercepted) {
+      if (packet != null) {
+        context.write(packet, context.voidPromise());
+      }
+    }
+    context.flush();
+    return true;
   }
 
   @Override
@@ -209,66 +437,98 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       final String character,
       final int width,
       final int height) {
-    final int maxHeight = Math.min(height, entities.length);
-    final PacketPlayOutEntityMetadata[] packets = new PacketPlayOutEntityMetadata[maxHeight];
-    int index = 0;
-    for (int i = 0; i < maxHeight; i++) {
-      final ChatComponentText component = new ChatComponentText("");
-      for (int x = 0; x < width; x++) {
-        this.modifyComponent(character, component, data.get(index++));
-      }
-      packets[i] = this.createEntityPacket(entities[i], component);
-    }
-    if (viewers == null) {
-      for (final UUID uuid : this.connections.keySet()) {
-        this.sendEntityPacketToViewers(uuid, packets);
-      }
-    } else {
-      for (final UUID uuid : viewers) {
-        this.sendEntityPacketToViewers(uuid, packets);
-      }
+    final int[] ids = new int[entities.length];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = entities[i].getEntityId();
     }
+    this.displayVirtualEntities(viewers, ids, data, character, width, height);
   }
 
-  private void modifyComponent(
-      @NotNull final String character, @NotNull final ChatComponentText component, final int c) {
-    final ChatComponentText p = new ChatComponentText(character);
-    p.setChatModifier(p.getChatModifier().setColor(ChatHexColor.a(c & 0xFFFFFF)));
-    component.addSibling(p);
+  @Override
+  public <T extends Entity> int @NotNull [] spawnVirtualEntities(
+      final UUID[] viewers,
+      @NotNull final Location @NotNull [] locations,
+      @NotNull final Class<T> type,
+      @Nullable final Consumer<T> consumer) {
+    final int[] ids = new int[locations.length];
+    final List<Packet<?>> packets = this.virtual.create(viewers, locations, type, consumer, ids);
+    this.broadcastPackets(
+        this.virtual.getViewers(ids, this.players.values()), packets.toArray(new Packet<?>[0]));
+    return ids;
   }
 
-  @NotNull
-  private PacketPlayOutEntityMetadata createEntityPacket(
-      @NotNull final Entity entity, @NotNull final ChatComponentText component) {
-    final PacketPlayOutEntityMetadata packet =
-        new PacketPlayOutEntityMetadata(
-            ((CraftEntity) entity).getHandle().getId(), new DataWatcher(null), false);
-    setFinalField(
-        METADATA_ITEMS,
-        packet,
-        Collections.singletonList(
-            new Item<>(new DataWatcherObject<>(2, DataWatcherRegistry.f), Optional.of(component))));
-    return packet;
+  @Override
+  public void forgetEntities(final Entity @NotNull [] entities) {
+    final int[] ids = new int[entities.length];
+    for (int i = 0; i < entities.length; i++) {
+      ids[i] = entities[i].getEntityId();
+    }
+    this.names.forget(ids);
   }
 
-  private void sendEntityPacketToViewers(
-      @NotNull final UUID uuid, @NotNull final PacketPlayOutEntityMetadata @NotNull [] packets) {
-    final PlayerConnection connection = this.connections.get(uuid);
-    for (final PacketPlayOutEntityMetadata packet : packets) {
+  @Override
+  public void removeVirtualEntities(final int @NotNull [] ids) {
+    final List<UUID> targets = this.virtual.getViewers(ids, this.players.values());
+    this.virtual.remove(ids);
+    this.names.forget(ids);
+    this.broadcastPackets(targets, new Packet<?>[] {this.virtual.createDestroyPacket(ids)});
+  }
+
+  @Override
+  public void resendVirtualEntities(@NotNull final Player player) {
+    final PlayerConnection connection = this.connections.get(player.getUniqueId());
+    if (connection == null) {
+      return;
+    }
+    for (final Packet<?> packet : this.virtual.getSpawnPackets(player)) {
       connection.sendPacket(packet);
     }
+    this.names.invalidate();
   }
 
-  private void sendMapPacketsToViewers(
-      @NotNull final UUID uuid, @NotNull final PacketPlayOutMap[] packetArray) {
-    final long val = this.lastUpdated.getOrDefault(uuid, 0L);
-    if (System.currentTimeMillis() - val > PACKET_THRESHOLD_MS) {
-      this.lastUpdated.put(uuid, System.currentTimeMillis());
-      final PlayerConnection connection = this.connections.get(uuid);
-      for (final PacketPlayOutMap packet : packetArray) {
-        connection.sendPacket(packet);
-      }
+  @Override
+  public void displayVirtualEntities(
+      final UUID[] viewers,
+      final int @NotNull [] ids,
+      @NotNull final IntBuffer data,
+      final String character,
+      final int width,
+      final int height) {
+    final List<PacketPlayOutEntityMetadata> packets =
+        this.names.render(viewers, ids, data, character, width, height);
+    if (packets.isEmpty()) {
+      return;
+    }
+    this.broadcastPackets(
+        this.virtual.getViewers(ids, this.players.values()),
+        packets.toArray(new PacketPlayOutEntityMetadata[0]));
+  }
+
+  /*
+
+  The packets are created from teams of a scoreboard nobody is shown,
+  which only carry the suffix. Every other option keeps its default, so
+  the teams the viewers have are otherwise left as they were registered.
+
+   */
+  @Override
+  public void displayScoreboardTeams(
+      final UUID[] viewers,
+      @NotNull final List<String> teams,
+      @NotNull final List<String> suffixes) {
+    final int count = teams.size();
+    if (count == 0) {
+      return;
+    }
+    final Packet<?>[] packets = new Packet<?>[count];
+    for (int i = 0; i < count; i++) {
+      final ScoreboardTeam team = new ScoreboardTeam(this.scoreboard, teams.get(i));
+      team.setSuffix(CraftChatMessage.fromStringOrNull(suffixes.get(i)));
+      packets[i] = PacketPlayOutScoreboardTeam.a(team, false);
     }
+    final Collection<UUID> targets =
+        viewers == null ? this.connections.keySet() : Arrays.asList(viewers);
+    this.broadcastPackets(targets, packets);
   }
 
   @Override
@@ -284,6 +544,13 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       pipeline.addBefore("packet_handler", this.handlerName, new PacketInterceptor(player));
     }
     this.connections.put(player.getUniqueId(), conn);
+    this.players.put(player.getUniqueId(), player);
+    for (final Packet<?> packet : this.virtual.getSpawnPackets(player)) {
+      conn.sendPacket(packet);
+    }
+    this.invalidateMaps();
+    this.invalidateChats();
+    this.names.invalidate();
   }
 
   @Override
@@ -297,6 +564,11 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       }
     }
     this.connections.remove(player.getUniqueId());
+    this.players.remove(player.getUniqueId());
+    this.dropped.remove(player.getUniqueId());
+    this.invalidateMaps();
+    this.invalidateChats();
+    this.names.invalidate();
   }
 
   @Override
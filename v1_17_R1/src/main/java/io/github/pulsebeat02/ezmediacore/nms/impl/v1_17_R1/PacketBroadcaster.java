@@ -0,0 +1,324 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.nms.impl.v1_17_R1;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import net.minecraft.network.EnumProtocol;
+import net.minecraft.network.PacketCompressor;
+import net.minecraft.network.PacketDataSerializer;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.protocol.EnumProtocolDirection;
+import net.minecraft.network.protocol.Packet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+Writes the same packets to many channels while only encoding (and, if the
+channel compresses, compressing) each packet once.
+
+The server pipeline is, from tail to head: packet_handler, encoder,
+compress, prepender and encrypt. A packet encoded to its id and payload is
+written through the context of the compressor, or through the context of
+the encoder when compression is disabled, so only the framing and the
+per-player encryption run once per viewer. The compressed frame is shared
+by every channel with the same compression threshold.
+
+Skipping the encoder also skips every outbound handler in front of it, so
+only channels with a stock pipeline are written to this way. A plugin that
+injects its own handler (ProtocolLib, or ViaVersion replacing the encoder)
+has to see every packet, and those channels are left to the caller to send
+to through the player connection.
+
+Member names of the protocol classes are obfuscated, so the packet id
+lookup and the compression threshold are found by their signatures.
+
+ */
+final class PacketBroadcaster {
+
+  private static final String ENCODER;
+  private static final String COMPRESSOR;
+  private static final Set<String> VANILLA_HANDLERS;
+  private static final int UNCOMPRESSED;
+  private static final Method PACKET_ID;
+  private static final ThreadLocal<Deflater> DEFLATER;
+
+  static {
+    ENCODER = "encoder";
+    COMPRESSOR = "compress";
+    VANILLA_HANDLERS =
+        Set.of(
+            "timeout",
+            "splitter",
+            "decoder",
+            "prepender",
+            ENCODER,
+            "packet_handler",
+            "decrypt",
+            "encrypt",
+            "decompress",
+            COMPRESSOR);
+    UNCOMPRESSED = -1;
+    PACKET_ID = getPacketIdMethod();
+    DEFLATER = ThreadLocal.withInitial(Deflater::new);
+  }
+
+  private final String interceptor;
+  private final Map<Class<?>, Integer> ids;
+  private final Map<Class<?>, Field> thresholds;
+
+  PacketBroadcaster(@NotNull final String interceptor) {
+    this.interceptor = interceptor;
+    this.ids = new ConcurrentHashMap<>();
+    this.thresholds = new ConcurrentHashMap<>();
+  }
+
+  private static @Nullable Method getPacketIdMethod() {
+    for (final Method method : EnumProtocol.class.getDeclaredMethods()) {
+      final Class<?>[] parameters = method.getParameterTypes();
+      if (method.getReturnType() == Integer.class
+          && parameters.length == 2
+          && parameters[0] == EnumProtocolDirection.class
+          && parameters[1] == Packet.class) {
+        method.setAccessible(true);
+        return method;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks whether only the server's own handlers (and the interceptor) are in the pipeline of
+   * the channel, in which case writing encoded packets past them doesn't hide anything.
+   *
+   * @param channel the channel
+   * @return whether packets may be broadcast to the channel
+   */
+  boolean isVanilla(@NotNull final Channel channel) {
+    final ChannelPipeline pipeline = channel.pipeline();
+    for (final Map.Entry<String, ChannelHandler> entry : pipeline) {
+      final String name = entry.getKey();
+      if (!name.equals(this.interceptor) && !VANILLA_HANDLERS.contains(name)) {
+        return false;
+      }
+    }
+    final ChannelHandler encoder = pipeline.get(ENCODER);
+    final ChannelHandler compressor = pipeline.get(COMPRESSOR);
+    return encoder != null
+        && encoder.getClass() == PacketEncoder.class
+        && (compressor == null || compressor.getClass() == PacketCompressor.class);
+  }
+
+  /**
+   * Writes the first count packets to every channel. The channels must have been checked with
+   * {@link #isVanilla(Channel)}.
+   *
+   * @param channels the channels to write to
+   * @param packets the packets
+   * @param count the number of packets to write
+   * @return false if the packets couldn't be encoded, in which case nothing was written
+   */
+  boolean broadcast(
+      @NotNull final Collection<Channel> channels,
+      @NotNull final Packet<?>[] packets,
+      final int count) {
+    final ByteBuf[] encoded = this.encodeAll(packets, count);
+    if (encoded == null) {
+      return false;
+    }
+    try {
+      for (final Map.Entry<Integer, List<ChannelHandlerContext>> entry :
+          this.groupByThreshold(channels).entrySet()) {
+        this.writeAll(entry.getValue(), encoded, entry.getKey());
+      }
+    } finally {
+      for (final ByteBuf buf : encoded) {
+        buf.release();
+      }
+    }
+    return true;
+  }
+
+  private void writeAll(
+      @NotNull final List<ChannelHandlerContext> contexts,
+      @NotNull final ByteBuf @NotNull [] encoded,
+      final int threshold) {
+    for (final ByteBuf packet : encoded) {
+      final ByteBuf frame =
+          threshold == UNCOMPRESSED ? packet.retain() : compress(packet, threshold);
+      try {
+        for (final ChannelHandlerContext context : contexts) {
+          context.write(frame.retainedDuplicate(), context.voidPromise());
+        }
+      } finally {
+        frame.release();
+      }
+    }
+    for (final ChannelHandlerContext context : contexts) {
+      context.flush();
+    }
+  }
+
+  private @NotNull Map<Integer, List<ChannelHandlerContext>> groupByThreshold(
+      @NotNull final Collection<Channel> channels) {
+    final Map<Integer, List<ChannelHandlerContext>> groups = new HashMap<>();
+    for (final Channel channel : channels) {
+      if (!channel.isActive()) {
+        continue;
+      }
+      final ChannelPipeline pipeline = channel.pipeline();
+      final ChannelHandlerContext compressor = pipeline.context(COMPRESSOR);
+      final ChannelHandlerContext context =
+          compressor != null ? compressor : pipeline.context(ENCODER);
+      if (context == null) {
+        continue;
+      }
+      final int threshold =
+          compressor != null ? this.getThreshold(compressor.handler()) : UNCOMPRESSED;
+      groups.computeIfAbsent(threshold, key -> new ArrayList<>()).add(context);
+    }
+    return groups;
+  }
+
+  private ByteBuf @Nullable [] encodeAll(@NotNull final Packet<?>[] packets, final int count) {
+    final ByteBuf[] encoded = new ByteBuf[count];
+    for (int i = 0; i < count; i++) {
+      final Integer id = this.getPacketId(packets[i]);
+      if (id == null) {
+        for (int j = 0; j < i; j++) {
+          encoded[j].release();
+        }
+        return null;
+      }
+      final ByteBuf buf = Unpooled.buffer();
+      writeVarInt(buf, id);
+      packets[i].a(new PacketDataSerializer(buf));
+      encoded[i] = buf;
+    }
+    return encoded;
+  }
+
+  private @Nullable Integer getPacketId(@NotNull final Packet<?> packet) {
+    if (PACKET_ID == null) {
+      return null;
+    }
+    final Class<?> type = packet.getClass();
+    final Integer cached = this.ids.get(type);
+    if (cached != null) {
+      return cached;
+    }
+    for (final EnumProtocol protocol : EnumProtocol.values()) {
+      for (final EnumProtocolDirection direction : EnumProtocolDirection.values()) {
+        final Integer id = this.findPacketId(protocol, direction, packet);
+        if (id != null) {
+          this.ids.put(type, id);
+          return id;
+        }
+      }
+    }
+    return null;
+  }
+
+  private @Nullable Integer findPacketId(
+      @NotNull final EnumProtocol protocol,
+      @NotNull final EnumProtocolDirection direction,
+      @NotNull final Packet<?> packet) {
+    try {
+      return (Integer) PACKET_ID.invoke(protocol, direction, packet);
+    } catch (final IllegalAccessException e) {
+      throw new AssertionError(e);
+    } catch (final InvocationTargetException e) {
+      return null; // protocol has no packets in this direction
+    }
+  }
+
+  private int getThreshold(@NotNull final ChannelHandler compressor) {
+    final Field field =
+        this.thresholds.computeIfAbsent(
+            compressor.getClass(), PacketBroadcaster::getThresholdField);
+    try {
+      return field.getInt(compressor);
+    } catch (final IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private static @NotNull Field getThresholdField(@NotNull final Class<?> type) {
+    for (final Field field : type.getDeclaredFields()) {
+      if (field.getType() == int.class && !Modifier.isStatic(field.getModifiers())) {
+        field.setAccessible(true);
+        return field;
+      }
+    }
+    throw new AssertionError("Couldn't find compression threshold of %s!".formatted(type));
+  }
+
+  private static @NotNull ByteBuf compress(@NotNull final ByteBuf packet, final int threshold) {
+    final int length = packet.readableBytes();
+    final ByteBuf frame = Unpooled.buffer(length + 5);
+    if (length < threshold) {
+      writeVarInt(frame, 0);
+      frame.writeBytes(packet, packet.readerIndex(), length);
+      return frame;
+    }
+    writeVarInt(frame, length);
+    final Deflater deflater = DEFLATER.get();
+    deflater.setInput(packet.nioBuffer(packet.readerIndex(), length));
+    deflater.finish();
+    while (!deflater.finished()) {
+      frame.ensureWritable(8192);
+      final int written =
+          deflater.deflate(frame.nioBuffer(frame.writerIndex(), frame.writableBytes()));
+      frame.writerIndex(frame.writerIndex() + written);
+    }
+    deflater.reset();
+    return frame;
+  }
+
+  private static void writeVarInt(@NotNull final ByteBuf buf, final int number) {
+    int value = number;
+    while ((value & -128) != 0) {
+      buf.writeByte(value & 127 | 128);
+      value >>>= 7;
+    }
+    buf.writeByte(value);
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.nms.impl.v1_17_R1;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.PacketPlayOutEntityDestroy;
+import net.minecraft.network.protocol.game.PacketPlayOutEntityMetadata;
+import net.minecraft.network.protocol.game.PacketPlayOutSpawnEntity;
+import net.minecraft.network.protocol.game.PacketPlayOutSpawnEntityLiving;
+import net.minecraft.network.syncher.DataWatcher;
+import net.minecraft.world.entity.EntityLiving;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.craftbukkit.v1_17_R1.CraftWorld;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+Keeps the entities of virtual entity screens.
+
+The entities are created through the world, which sets them up and
+reserves their ids from the server's own entity counter, but they are
+never added to it. The server doesn't tick, track or save them, and their
+ids can't collide with real entities. They only exist on the clients the
+spawn packets are sent to, so they are sent again to a viewer who joins
+after the screen was created. A client also forgets every entity when it
+respawns or changes worlds, so they are sent again then as well.
+
+The member holding the data watcher of an entity is obfuscated, so it is
+found by its type.
+
+ */
+final class VirtualEntityTracker {
+
+  private static final MethodHandle DATA_WATCHER;
+
+  static {
+    try {
+      DATA_WATCHER = MethodHandles.lookup().unreflectGetter(getDataWatcherField());
+    } catch (final IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private final Map<Integer, VirtualEntity> entities;
+
+  VirtualEntityTracker() {
+    this.entities = new ConcurrentHashMap<>();
+  }
+
+  private static @NotNull Field getDataWatcherField() {
+    for (final Field field : net.minecraft.world.entity.Entity.class.getDeclaredFields()) {
+      if (field.getType() == DataWatcher.class && !Modifier.isStatic(field.getModifiers())) {
+        field.setAccessible(true);
+        return field;
+      }
+    }
+    throw new AssertionError("Couldn't find the data watcher of entities!");
+  }
+
+  /**
+   * Creates an entity for every location and returns the packets which spawn them.
+   *
+   * @param viewers the viewers, or null for everyone in the world of the entities
+   * @param locations the location of every entity
+   * @param type the class of the entities
+   * @param consumer called with every entity before its packets are created
+   * @param ids receives the id of every entity, in the order of the locations
+   * @param <T> the type of the entities
+   * @return the spawn and metadata packets of the entities
+   */
+  <T extends Entity> @NotNull List<Packet<?>> create(
+      final UUID @Nullable [] viewers,
+      @NotNull final Location @NotNull [] locations,
+      @NotNull final Class<T> type,
+      @Nullable final Consumer<T> consumer,
+      final int @NotNull [] ids) {
+    final UUID[] copy = viewers == null ? null : viewers.clone();
+    final List<Packet<?>> packets = new ArrayList<>(locations.length << 1);
+    for (int i = 0; i < locations.length; i++) {
+      final Location location = locations[i];
+      final World world = location.getWorld();
+      final net.minecraft.world.entity.Entity entity =
+          ((CraftWorld) world).createEntity(location, type);
+      final Entity bukkit = entity.getBukkitEntity();
+      if (consumer != null) {
+        consumer.accept(type.cast(bukkit));
+      }
+      final VirtualEntity virtual = new VirtualEntity(entity, world, copy);
+      ids[i] = bukkit.getEntityId();
+      this.entities.put(ids[i], virtual);
+      virtual.addSpawnPackets(ids[i], packets);
+    }
+    return packets;
+  }
+
+  /**
+   * Returns the players who are shown virtual entities. Every entity of a screen has the same
+   * viewers and world, so the first entity which is still kept decides.
+   *
+   * @param ids the ids of the entities
+   * @param players the players to choose from
+   * @return the ids of the players the entities are shown to
+   */
+  @NotNull
+  List<UUID> getViewers(
+      final int @NotNull [] ids, @NotNull final Collection<? extends Player> players) {
+    final List<UUID> viewers = new ArrayList<>();
+    for (final int id : ids) {
+      final VirtualEntity entity = this.entities.get(id);
+      if (entity != null) {
+        for (final Player player : players) {
+          if (entity.isShownTo(player)) {
+            viewers.add(player.getUniqueId());
+          }
+        }
+        break;
+      }
+    }
+    return viewers;
+  }
+
+  /**
+   * Returns the packets which spawn every virtual entity a player should see, for a player who
+   * just joined, respawned or changed worlds.
+   *
+   * @param player the player
+   * @return the spawn and metadata packets
+   */
+  @NotNull
+  List<Packet<?>> getSpawnPackets(@NotNull final Player player) {
+    final List<Packet<?>> packets = new ArrayList<>();
+    for (final Map.Entry<Integer, VirtualEntity> entry : this.entities.entrySet()) {
+      final VirtualEntity entity = entry.getValue();
+      if (entity.isShownTo(player)) {
+        entity.addSpawnPackets(entry.getKey(), packets);
+      }
+    }
+    return packets;
+  }
+
+  /**
+   * Forgets virtual entities.
+   *
+   * @param ids the ids of the entities
+   */
+  void remove(final int @NotNull [] ids) {
+    for (final int id : ids) {
+      this.entities.remove(id);
+    }
+  }
+
+  @NotNull
+  Packet<?> createDestroyPacket(final int @NotNull [] ids) {
+    return new PacketPlayOutEntityDestroy(ids);
+  }
+
+  private record VirtualEntity(
+      @NotNull net.minecraft.world.entity.Entity entity,
+      @NotNull World world,
+      UUID @Nullable [] viewers) {
+
+    boolean isShownTo(@NotNull final Player player) {
+      return player.getWorld().equals(this.world)
+          && (this.viewers == null || Arrays.asList(this.viewers).contains(player.getUniqueId()));
+    }
+
+    void addSpawnPackets(final int id, @NotNull final List<Packet<?>> packets) {
+      packets.add(
+          this.entity instanceof EntityLiving
+              ? new PacketPlayOutSpawnEntityLiving((EntityLiving) this.entity)
+              : new PacketPlayOutSpawnEntity(this.entity));
+      packets.add(new PacketPlayOutEntityMetadata(id, this.getDataWatcher(), true));
+    }
+
+    private @NotNull DataWatcher getDataWatcher() {
+      try {
+        return (DataWatcher) DATA_WATCHER.invokeExact(this.entity);
+      } catch (final Throwable e) {
+        throw new AssertionError(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.nms.impl.v1_18_R1;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.network.chat.ChatBaseComponent;
+import net.minecraft.network.chat.ChatComponentText;
+import net.minecraft.network.chat.ChatHexColor;
+import net.minecraft.network.chat.IChatBaseComponent;
+import net.minecraft.network.protocol.game.PacketPlayOutEntityMetadata;
+import net.minecraft.network.syncher.DataWatcher;
+import net.minecraft.network.syncher.DataWatcher.Item;
+import net.minecraft.network.syncher.DataWatcherObject;
+import net.minecraft.network.syncher.DataWatcherRegistry;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/*
+
+Turns the rows of a frame into the custom names of the entities of an
+entity screen.
+
+Adjacent pixels of the same color are merged into a single styled run,
+so a name has one component per color change instead of one per pixel.
+The pixels last sent to every entity are remembered, and a metadata
+packet is only created for the rows which changed (or were shown to
+different viewers or with another character).
+
+The packet has no constructor which takes the items directly, so they
+are written into its final field through a setter handle which is looked
+up once.
+
+ */
+final class EntityNameRenderer {
+
+  private static final MethodHandle METADATA_ITEMS;
+  private static final DataWatcherObject<Optional<IChatBaseComponent>> CUSTOM_NAME;
+  private static final DataWatcher EMPTY_WATCHER;
+
+  static {
+    CUSTOM_NAME = new DataWatcherObject<>(2, DataWatcherRegistry.f);
+    EMPTY_WATCHER = new DataWatcher(null);
+    try {
+      final Field field = PacketPlayOutEntityMetadata.class.getDeclaredField("b");
+      field.setAccessible(true);
+      METADATA_ITEMS = MethodHandles.lookup().unreflectSetter(field);
+    } catch (final NoSuchFieldException | IllegalAccessException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  private final Map<Integer, EntityRow> rows;
+
+  EntityNameRenderer() {
+    this.rows = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates the metadata packets for every entity whose row changed since it was last rendered.
+   *
+   * @param viewers the viewers the frame is sent to, or null for everyone
+   * @param ids the ids of the entities of the screen, from top to bottom
+   * @param data the pixels, of size width * height
+   * @param character the character of a pixel
+   * @param width the width of the frame
+   * @param height the height of the frame
+   * @return the packets to send, which may be empty
+   */
+  @NotNull
+  List<PacketPlayOutEntityMetadata> render(
+      final UUID @Nullable [] viewers,
+      final int @NotNull [] ids,
+      @NotNull final IntBuffer data,
+      @NotNull final String character,
+      final int width,
+      final int height) {
+    final int count = Math.min(height, ids.length);
+    final List<PacketPlayOutEntityMetadata> packets = new ArrayList<>(count);
+    for (int y = 0; y < count; y++) {
+      final int id = ids[y];
+      final int start = y * width;
+      final EntityRow row = this.rows.computeIfAbsent(id, key -> new EntityRow());
+      if (row.update(viewers, character, data, start, width)) {
+        packets.add(this.createPacket(id, this.createName(character, data, start, width)));
+      }
+    }
+    return packets;
+  }
+
+  private @NotNull IChatBaseComponent createName(
+      @NotNull final String character,
+      @NotNull final IntBuffer data,
+      final int start,
+      final int width) {
+    final ChatComponentText name = new ChatComponentText("");
+    final int end = start + width;
+    int index = start;
+    while (index < end) {
+      final int rgb = data.get(index) & 0xFFFFFF;
+      int next = index + 1;
+      while (next < end && (data.get(next) & 0xFFFFFF) == rgb) {
+        next++;
+      }
+      final ChatBaseComponent run = new ChatComponentText(character.repeat(next - index));
+      run.a(run.c().a(ChatHexColor.a(rgb)));
+      name.a(run);
+      index = next;
+    }
+    return name;
+  }
+
+  private @NotNull PacketPlayOutEntityMetadata createPacket(
+      final int id, @NotNull final IChatBaseComponent name) {
+    final PacketPlayOutEntityMetadata packet =
+        new PacketPlayOutEntityMetadata(id, EMPTY_WATCHER, false);
+    final List<Item<?>> items =
+        Collections.singletonList(new Item<>(CUSTOM_NAME, Optional.of(name)));
+    try {
+      METADATA_ITEMS.invokeExact(packet, items);
+    } catch (final Throwable e) {
+      throw new AssertionError(e);
+    }
+    return packet;
+  }
+
+  /**
+   * Forgets the rendered rows of entities which no longer exist.
+   *
+   * @param ids the ids of the entities
+   */
+  void forget(final int @NotNull [] ids) {
+    for (final int id : ids) {
+      this.rows.remove(id);
+    }
+  }
+
+  /** Forgets all rendered rows, so every entity is sent its full name again. */
+  void invalidate() {
+    this.rows.clear();
+  }
+
+  private static final class EntityRow {
+
+    private UUID[] viewers;
+    private String character;
+    private int[] pixels;
+
+    boolean update(
+        final UUID[] viewers,
+        @NotNull final String character,
+        @NotNull final IntBuffer data,
+        final int start,
+        final int width) {
+      boolean changed = false;
+      if (this.pixels == null
+          || this.pixels.length != width
+          || !character.equals(this.character)
+          || !Arrays.equals(this.viewers, viewers)) {
+        this.viewers = viewers == null ? null : viewers.clone();
+        this.character = character;
+        this.pixels = new int[width];
+        changed = true;
+      }
+      for (int x = 0; x < width; x++) {
+        final int rgb = data.get(start + x);
+        if (this.pixels[x] != rgb) {
+          this.pixels[x] = rgb;
+          changed = true;
+        }
+      }
+      return changed;
+    }
+  }
+}